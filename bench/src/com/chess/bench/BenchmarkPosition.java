@@ -0,0 +1,43 @@
+package com.chess.bench;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.pieces.Piece;
+import com.chess.pgn.FenUtilities;
+
+// Fast uppsättning positioner som alla benchmarks körs över, två från varje del av partiet
+public enum BenchmarkPosition {
+    START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"),
+    RUY_LOPEZ("r1bqkbnr/pppp1ppp/2n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 3 3"),
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"),
+    ITALIAN_MIDDLEGAME("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"),
+    ROOK_ENDGAME("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"),
+    PAWN_ENDGAME("8/5pk1/6p1/3K4/8/6P1/5P2/8 w - - 0 1");
+
+    private final String fen;
+
+    BenchmarkPosition(final String fen) {
+        this.fen = fen;
+    }
+
+    public Board createBoard() {
+        return FenUtilities.createGameFromFEN(this.fen);
+    }
+
+    // Builder med samma pjäser som positionen, så att nya bräden kan byggas utan att läsa FEN
+    public Board.Builder createBuilder() {
+        return toBuilder(createBoard());
+    }
+
+    static Board.Builder toBuilder(final Board board) {
+        final Board.Builder builder = new Board.Builder();
+        for (final Piece piece : board.getWhitePieces()) {
+            builder.setPiece(piece);
+        }
+        for (final Piece piece : board.getBlackPieces()) {
+            builder.setPiece(piece);
+        }
+        builder.setEnPassantPawn(board.getEnPassantPawn());
+        builder.setMoveMaker(board.currentPlayer().getAlliance());
+        return builder;
+    }
+}
@@ -0,0 +1,30 @@
+package com.chess.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Kör alla benchmarks med gc-profileraren, så att allokeringen per anrop rapporteras bredvid
+// genomströmningen. Vanliga JMH-argument, t.ex. ett regex för vilka benchmarks som ska köras
+// eller -rff result.json, skickas vidare till JMH
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        final OptionsBuilder optionsBuilder = new OptionsBuilder();
+        optionsBuilder.parent(commandLineOptions);
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            optionsBuilder.include(BenchmarkRunner.class.getPackage().getName() + ".*Benchmark");
+        }
+        final Options options = optionsBuilder.addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
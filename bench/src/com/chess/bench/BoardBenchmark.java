@@ -0,0 +1,30 @@
+package com.chess.bench;
+
+import com.chess.engine.board.Board;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    @Param
+    public BenchmarkPosition position;
+
+    private Board.Builder builder;
+
+    @Setup
+    public void setUp() {
+        this.builder = this.position.createBuilder();
+    }
+
+    @Benchmark
+    public Board build() {
+        return this.builder.build();
+    }
+}
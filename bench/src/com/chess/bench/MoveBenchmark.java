@@ -0,0 +1,85 @@
+package com.chess.bench;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.move.Move;
+import com.chess.engine.move.MoveTransition;
+import com.chess.pgn.FenUtilities;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Move.execute och Player.makeMove för varje dragtyp, i en position där draget finns. Samma drag
+// görs också på plats i MutableBoard för att se vad det kostar att skapa ett nytt bräde
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveBenchmark {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String EN_PASSANT = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3";
+    private static final String PROMOTION = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    public enum MoveType {
+        MAJOR_MOVE(START, Move.MajorMove.class),
+        MAJOR_ATTACK_MOVE(KIWIPETE, Move.MajorAttackMove.class),
+        PAWN_MOVE(START, Move.PawnMove.class),
+        PAWN_JUMP(START, Move.PawnJump.class),
+        PAWN_ATTACK_MOVE(KIWIPETE, Move.PawnAttackMove.class),
+        PAWN_EN_PASSANT_ATTACK_MOVE(EN_PASSANT, Move.PawnEnPassantAttackMove.class),
+        PAWN_PROMOTION(PROMOTION, Move.PawnPromotion.class),
+        KING_SIDE_CASTLE_MOVE(KIWIPETE, Move.KingSideCastleMove.class),
+        QUEEN_SIDE_CASTLE_MOVE(KIWIPETE, Move.QueenSideCastleMove.class);
+
+        private final String fen;
+        private final Class<? extends Move> moveClass;
+
+        MoveType(final String fen, final Class<? extends Move> moveClass) {
+            this.fen = fen;
+            this.moveClass = moveClass;
+        }
+    }
+
+    @Param
+    public MoveType moveType;
+
+    private Board board;
+    private Move move;
+    private MutableBoard mutableBoard;
+
+    @Setup
+    public void setUp() {
+        this.board = FenUtilities.createGameFromFEN(this.moveType.fen);
+        this.mutableBoard = new MutableBoard(this.board);
+        for (final Move legalMove : this.board.currentPlayer().getLegalMoves()) {
+            if (legalMove.getClass() == this.moveType.moveClass) {
+                this.move = legalMove;
+                return;
+            }
+        }
+        throw new IllegalStateException("No " + this.moveType + " in " + this.moveType.fen);
+    }
+
+    @Benchmark
+    public Board execute() {
+        return this.move.execute();
+    }
+
+    @Benchmark
+    public MoveTransition makeMove() {
+        return this.board.currentPlayer().makeMove(this.move);
+    }
+
+    // Draget tas tillbaka direkt, så att varje anrop utgår från samma position
+    @Benchmark
+    public long makeUnmakeMutable() {
+        this.mutableBoard.makeMove(this.move);
+        final long zobristHash = this.mutableBoard.getZobristHash();
+        this.mutableBoard.unmakeMove();
+        return zobristHash;
+    }
+}
@@ -0,0 +1,49 @@
+package com.chess.bench;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// calculateLegalMoves för varje pjästyp hos spelaren vid draget. Dragen sparas inte i brädet,
+// så samma bräde kan användas i alla anrop
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PieceBenchmark {
+
+    @Param
+    public BenchmarkPosition position;
+
+    @Param
+    public PieceType pieceType;
+
+    private Board board;
+    private List<Piece> pieces;
+
+    @Setup
+    public void setUp() {
+        this.board = this.position.createBoard();
+        this.pieces = new ArrayList<>();
+        for (final Piece piece : this.board.currentPlayer().getActivePieces()) {
+            if (piece.getPieceType() == this.pieceType) {
+                this.pieces.add(piece);
+            }
+        }
+    }
+
+    @Benchmark
+    public void calculateLegalMoves(final Blackhole blackhole) {
+        for (final Piece piece : this.pieces) {
+            blackhole.consume(piece.calculateLegalMoves(this.board));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.chess.bench;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.move.Move;
+import com.chess.engine.move.Move.MoveFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Brädet sparar dragen och schackstatusen efter första frågan, så varje anrop bygger ett nytt
+// bräde. Jämför med BoardBenchmark.build för att se vad själva frågan kostar
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerBenchmark {
+
+    @Param
+    public BenchmarkPosition position;
+
+    private Board.Builder builder;
+    private int currentCoordinate;
+    private int destinationCoordinate;
+
+    @Setup
+    public void setUp() {
+        this.builder = this.position.createBuilder();
+        // Sista draget i listan, så att createMove måste gå igenom alla drag innan det hittas
+        Move lastMove = Move.NULL_MOVE;
+        for (final Move move : this.builder.build().currentPlayer().getLegalMoves()) {
+            lastMove = move;
+        }
+        this.currentCoordinate = lastMove.getCurrentCoordinate();
+        this.destinationCoordinate = lastMove.getDestinationCoordinate();
+    }
+
+    @Benchmark
+    public boolean isInCheckMate() {
+        return this.builder.build().currentPlayer().isInCheckMate();
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return this.builder.build().currentPlayer().isInStalemate();
+    }
+
+    @Benchmark
+    public Move createMove() {
+        return MoveFactory.createMove(this.builder.build(), this.currentCoordinate, this.destinationCoordinate);
+    }
+}
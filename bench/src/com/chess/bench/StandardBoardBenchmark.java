@@ -0,0 +1,21 @@
+package com.chess.bench;
+
+import com.chess.engine.board.Board;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Utgångsställningen beror inte på BenchmarkPosition, så den mäts utan parametrar för att
+// inte köras en gång per position
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StandardBoardBenchmark {
+
+    @Benchmark
+    public Board createStandardBoard() {
+        return Board.createStandardBoard();
+    }
+}
@@ -32,6 +32,21 @@ public enum Alliance {
             return BoardUtils.EIGTH_RANK[position];
 
         }
+
+        @Override
+        public long getPawnPushes(int position) {
+            return BoardUtils.WHITE_PAWN_PUSHES[position];
+        }
+
+        @Override
+        public long getPawnJumps(int position) {
+            return BoardUtils.WHITE_PAWN_JUMPS[position];
+        }
+
+        @Override
+        public long getPawnAttacks(int position) {
+            return BoardUtils.WHITE_PAWN_ATTACKS[position];
+        }
     },
     BLACK {
         @Override
@@ -58,6 +73,21 @@ public enum Alliance {
         public boolean isPawnPromotionSquare(int position) {
             return BoardUtils.FIRST_RANK[position];
         }
+
+        @Override
+        public long getPawnPushes(int position) {
+            return BoardUtils.BLACK_PAWN_PUSHES[position];
+        }
+
+        @Override
+        public long getPawnJumps(int position) {
+            return BoardUtils.BLACK_PAWN_JUMPS[position];
+        }
+
+        @Override
+        public long getPawnAttacks(int position) {
+            return BoardUtils.BLACK_PAWN_ATTACKS[position];
+        }
     };
 
     public abstract int getDirection();
@@ -66,4 +96,8 @@ public enum Alliance {
     public abstract boolean isBlack();
 
     public abstract boolean isPawnPromotionSquare(int position);
+
+    public abstract long getPawnPushes(int position);
+    public abstract long getPawnJumps(int position);
+    public abstract long getPawnAttacks(int position);
 }
@@ -0,0 +1,18 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+
+// Alla rutor en sida attackerar. Räknas en gång per bräde och sida med BitBoard.getAttackedSquares,
+// så att frågor om en ruta är attackerad blir en uppslagning.
+public final class AttackMap {
+
+    private final long attackedSquares;
+
+    AttackMap(final BitBoard bitBoard, final Alliance attacker) {
+        this.attackedSquares = bitBoard.getAttackedSquares(attacker, bitBoard.getOccupancy());
+    }
+
+    public boolean isAttacked(final int square) {
+        return (this.attackedSquares & BitBoard.squareMask(square)) != 0;
+    }
+}
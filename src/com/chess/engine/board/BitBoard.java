@@ -0,0 +1,165 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.Map;
+
+// Bit i motsvarar ruta i, dvs bit 0 är a8 och bit 63 är h1
+public final class BitBoard {
+
+    static final int NUM_PIECE_TYPES = PieceType.values().length;
+
+    private final long[] pieceBoards;
+    private final long whiteOccupancy;
+    private final long blackOccupancy;
+    private final long allOccupancy;
+
+    BitBoard(final Map<Integer, Piece> boardConfig) {
+        this.pieceBoards = new long[Alliance.values().length * NUM_PIECE_TYPES];
+        long white = 0L;
+        long black = 0L;
+        for (final Piece piece : boardConfig.values()) {
+            final long mask = squareMask(piece.getPiecePosition());
+            this.pieceBoards[index(piece.getPieceAlliance(), piece.getPieceType())] |= mask;
+            if (piece.getPieceAlliance().isWhite()) {
+                white |= mask;
+            } else {
+                black |= mask;
+            }
+        }
+        this.whiteOccupancy = white;
+        this.blackOccupancy = black;
+        this.allOccupancy = white | black;
+    }
+
+    public static long squareMask(final int square) {
+        return 1L << square;
+    }
+
+    public long getPieces(final Alliance alliance, final PieceType pieceType) {
+        return this.pieceBoards[index(alliance, pieceType)];
+    }
+
+    public long getOccupancy(final Alliance alliance) {
+        return alliance.isWhite() ? this.whiteOccupancy : this.blackOccupancy;
+    }
+
+    public long getOccupancy() {
+        return this.allOccupancy;
+    }
+
+    public boolean isOccupied(final int square) {
+        return (this.allOccupancy & squareMask(square)) != 0;
+    }
+
+    public boolean isOccupiedBy(final int square, final Alliance alliance) {
+        return (getOccupancy(alliance) & squareMask(square)) != 0;
+    }
+
+    public int getKingSquare(final Alliance alliance) {
+        final long king = getPieces(alliance, PieceType.KING);
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    public boolean isSquareAttacked(final int square, final Alliance attacker) {
+        return getAttackers(square, attacker) != 0;
+    }
+
+    public long getAttackers(final int square, final Alliance attacker) {
+        return attackersOf(this.pieceBoards, this.allOccupancy, square, attacker);
+    }
+
+    // Angripare med en annan blockering, t.ex. när pjäser tagits bort i en slagväxling.
+    // Pjäser som inte finns i occupancy kan fortfarande ingå i svaret
+    public long getAttackers(final int square, final Alliance attacker, final long occupancy) {
+        return attackersOf(this.pieceBoards, occupancy, square, attacker);
+    }
+
+    // Alla rutor som angriparen attackerar, med den blockering som ges av occupancy
+    public long getAttackedSquares(final Alliance attacker, final long occupancy) {
+        long attacked = 0L;
+        for (long pawns = getPieces(attacker, PieceType.PAWN); pawns != 0; pawns &= pawns - 1) {
+            attacked |= attacker.getPawnAttacks(Long.numberOfTrailingZeros(pawns));
+        }
+        for (long knights = getPieces(attacker, PieceType.KNIGHT); knights != 0; knights &= knights - 1) {
+            attacked |= BoardUtils.KNIGHT_ATTACKS[Long.numberOfTrailingZeros(knights)];
+        }
+        final long queens = getPieces(attacker, PieceType.QUEEN);
+        for (long diagonals = getPieces(attacker, PieceType.BISHOP) | queens; diagonals != 0; diagonals &= diagonals - 1) {
+            attacked |= MagicBitBoards.bishopAttacks(Long.numberOfTrailingZeros(diagonals), occupancy);
+        }
+        for (long straights = getPieces(attacker, PieceType.ROOK) | queens; straights != 0; straights &= straights - 1) {
+            attacked |= MagicBitBoards.rookAttacks(Long.numberOfTrailingZeros(straights), occupancy);
+        }
+        final int kingSquare = getKingSquare(attacker);
+        if (kingSquare != -1) {
+            attacked |= BoardUtils.KING_ATTACKS[kingSquare];
+        }
+        return attacked;
+    }
+
+    // Om en pjäs som flyttas från from till to ger schack, utan att draget görs. Antingen direkt
+    // från målrutan, eller genom att en egen löpare, ett eget torn eller en egen dam bakom from
+    // får fri väg mot kungen. Gäller vanliga drag och slag. Vid en passant och rockad flyttas en
+    // andra pjäs, den räknas inte
+    public boolean givesCheck(final int from, final int to, final PieceType pieceType, final Alliance mover) {
+        final int kingSquare = getKingSquare(mover.isWhite() ? Alliance.BLACK : Alliance.WHITE);
+        if (kingSquare == -1) {
+            return false;
+        }
+        final long kingMask = squareMask(kingSquare);
+        final long occupancy = (this.allOccupancy & ~squareMask(from)) | squareMask(to);
+        final long direct;
+        switch (pieceType) {
+            case PAWN:
+                direct = mover.getPawnAttacks(to);
+                break;
+            case KNIGHT:
+                direct = BoardUtils.KNIGHT_ATTACKS[to];
+                break;
+            case BISHOP:
+                direct = MagicBitBoards.bishopAttacks(to, occupancy);
+                break;
+            case ROOK:
+                direct = MagicBitBoards.rookAttacks(to, occupancy);
+                break;
+            case QUEEN:
+                direct = MagicBitBoards.queenAttacks(to, occupancy);
+                break;
+            default:
+                direct = 0L;
+        }
+        if ((direct & kingMask) != 0) {
+            return true;
+        }
+        // Pjäsen som flyttas står kvar i pieceBoards på from och får inte räknas
+        final long ownPieces = ~squareMask(from) & ~squareMask(to);
+        final long queens = getPieces(mover, PieceType.QUEEN);
+        final long straights = (getPieces(mover, PieceType.ROOK) | queens) & ownPieces;
+        final long diagonals = (getPieces(mover, PieceType.BISHOP) | queens) & ownPieces;
+        return (MagicBitBoards.rookAttacks(kingSquare, occupancy) & straights) != 0 ||
+               (MagicBitBoards.bishopAttacks(kingSquare, occupancy) & diagonals) != 0;
+    }
+
+    // Delas med MutableBoard, som håller sina bitboards i samma layout
+    static long attackersOf(final long[] pieceBoards,
+                            final long occupancy,
+                            final int square,
+                            final Alliance attacker) {
+        final long queens = pieceBoards[index(attacker, PieceType.QUEEN)];
+        // En bonde som attackerar rutan står där en bonde av motsatt färg på rutan hade kunnat slå
+        final long pawnAttackers = attacker.isWhite() ? BoardUtils.BLACK_PAWN_ATTACKS[square] :
+                                                        BoardUtils.WHITE_PAWN_ATTACKS[square];
+        return (BoardUtils.KNIGHT_ATTACKS[square] & pieceBoards[index(attacker, PieceType.KNIGHT)]) |
+               (BoardUtils.KING_ATTACKS[square] & pieceBoards[index(attacker, PieceType.KING)]) |
+               (pawnAttackers & pieceBoards[index(attacker, PieceType.PAWN)]) |
+               (MagicBitBoards.rookAttacks(square, occupancy) & (pieceBoards[index(attacker, PieceType.ROOK)] | queens)) |
+               (MagicBitBoards.bishopAttacks(square, occupancy) & (pieceBoards[index(attacker, PieceType.BISHOP)] | queens));
+    }
+
+    static int index(final Alliance alliance, final PieceType pieceType) {
+        return alliance.ordinal() * NUM_PIECE_TYPES + pieceType.ordinal();
+    }
+}
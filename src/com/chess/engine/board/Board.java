@@ -3,10 +3,13 @@ package com.chess.engine.board;
 import com.chess.engine.Alliance;
 import com.chess.engine.move.Move;
 import com.chess.engine.pieces.*;
+import com.chess.engine.pieces.Piece.PieceType;
 
 import com.chess.engine.player.BlackPlayer;
 import com.chess.engine.player.Player;
 import com.chess.engine.player.WhitePlayer;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
@@ -17,6 +20,7 @@ import static com.chess.engine.Alliance.*;
 public class Board {
 
     private final List<Tile> gameBoard;
+    private final BitBoard bitBoard;
     private final Collection<Piece> whitePieces;
     private final Collection<Piece> blackPieces;
 
@@ -25,22 +29,35 @@ public class Board {
     private final Player currentPlayer;
 
     private final Pawn enPassantPawn;
-
+    private final int castlingRights;
+    private final Supplier<AttackMap> whiteAttackMap;
+    private final Supplier<AttackMap> blackAttackMap;
+    private final long zobristHash;
+    private final int pieceSquareScore;
 
     private Board(final Builder builder) {
         // Vi populerar vår gameBoard-list med emptyTiles och occupiedTiles
         this.gameBoard = createGameBoard(builder);
-        this.whitePieces = calculateActivePieces(this.gameBoard, WHITE);
-        this.blackPieces = calculateActivePieces(this.gameBoard, BLACK);
+        this.bitBoard = new BitBoard(builder.boardConfig);
+        this.whitePieces = calculateActivePieces(this.gameBoard, this.bitBoard.getOccupancy(WHITE));
+        this.blackPieces = calculateActivePieces(this.gameBoard, this.bitBoard.getOccupancy(BLACK));
 
         this.enPassantPawn = builder.enPassantPawn;
+        this.castlingRights = calculateCastlingRights(this.gameBoard);
+        this.whiteAttackMap = Suppliers.memoize(() -> new AttackMap(this.bitBoard, WHITE));
+        this.blackAttackMap = Suppliers.memoize(() -> new AttackMap(this.bitBoard, BLACK));
 
-        final Collection<Move> whiteStandardLegalMoves = calculateLegalMoves(this.whitePieces);
-        final Collection<Move> blackStandardLegalMoves = calculateLegalMoves(this.blackPieces);
+        // Dragen genereras först när någon frågar efter dem, de flesta bräden behöver aldrig
+        // motståndarens drag
+        final Supplier<Collection<Move>> whiteStandardLegalMoves = Suppliers.memoize(() -> calculateLegalMoves(this.whitePieces));
+        final Supplier<Collection<Move>> blackStandardLegalMoves = Suppliers.memoize(() -> calculateLegalMoves(this.blackPieces));
 
-        this.whitePlayer = new WhitePlayer(this, whiteStandardLegalMoves, blackStandardLegalMoves);
-        this.blackPlayer = new BlackPlayer(this, blackStandardLegalMoves, whiteStandardLegalMoves);
+        this.whitePlayer = new WhitePlayer(this, whiteStandardLegalMoves);
+        this.blackPlayer = new BlackPlayer(this, blackStandardLegalMoves);
         this.currentPlayer = (builder.nextMoveMaker == WHITE) ? this.whitePlayer : this.blackPlayer;
+        // Bräden som skapas av ett drag får nyckeln uppdaterad inkrementellt av draget
+        this.zobristHash = builder.zobristHash != null ? builder.zobristHash : Zobrist.calculateHash(this);
+        this.pieceSquareScore = builder.pieceSquareScore != null ? builder.pieceSquareScore : PieceSquareTables.calculateScore(this);
     }
 
     @Override
@@ -85,15 +102,10 @@ public class Board {
     }
 
     private static Collection<Piece> calculateActivePieces(final List<Tile> gameBoard,
-                                                    final Alliance alliance) {
-        final List<Piece> activePieces = new ArrayList<>();
-        for(final Tile tile : gameBoard) {
-            if (tile.isTileOccupied()) {
-                final Piece piece = tile.getPiece();
-                if (piece.getPieceAlliance() == alliance) {
-                    activePieces.add(piece);
-                }
-            }
+                                                           final long occupancy) {
+        final List<Piece> activePieces = new ArrayList<>(Long.bitCount(occupancy));
+        for (long pieces = occupancy; pieces != 0; pieces &= pieces - 1) {
+            activePieces.add(gameBoard.get(Long.numberOfTrailingZeros(pieces)).getPiece());
         }
         return Collections.unmodifiableList(activePieces);
     }
@@ -102,6 +114,61 @@ public class Board {
         return gameBoard.get(tileCoordinate);
     }
 
+    public BitBoard getBitBoard() {
+        return this.bitBoard;
+    }
+
+    // Rutorna som sidan attackerar, räknade första gången de efterfrågas
+    public AttackMap getAttackMap(final Alliance attacker) {
+        return attacker.isWhite() ? this.whiteAttackMap.get() : this.blackAttackMap.get();
+    }
+
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    public long getZobristHash() {
+        return this.zobristHash;
+    }
+
+    // Material och rutvärden sedda från vit, packade med mittspel och slutspel, se PieceSquareTables
+    public int getPieceSquareScore() {
+        return this.pieceSquareScore;
+    }
+
+    // Rockad är möjlig så länge kungen och tornet står kvar oflyttade på sina startrutor
+    private static int calculateCastlingRights(final List<Tile> gameBoard) {
+        int castlingRights = 0;
+        if (isUnmoved(gameBoard, 60, WHITE, PieceType.KING)) {
+            if (isUnmoved(gameBoard, 63, WHITE, PieceType.ROOK)) {
+                castlingRights |= BoardUtils.WHITE_KING_SIDE_CASTLE;
+            }
+            if (isUnmoved(gameBoard, 56, WHITE, PieceType.ROOK)) {
+                castlingRights |= BoardUtils.WHITE_QUEEN_SIDE_CASTLE;
+            }
+        }
+        if (isUnmoved(gameBoard, 4, BLACK, PieceType.KING)) {
+            if (isUnmoved(gameBoard, 7, BLACK, PieceType.ROOK)) {
+                castlingRights |= BoardUtils.BLACK_KING_SIDE_CASTLE;
+            }
+            if (isUnmoved(gameBoard, 0, BLACK, PieceType.ROOK)) {
+                castlingRights |= BoardUtils.BLACK_QUEEN_SIDE_CASTLE;
+            }
+        }
+        return castlingRights;
+    }
+
+    private static boolean isUnmoved(final List<Tile> gameBoard,
+                                     final int square,
+                                     final Alliance alliance,
+                                     final PieceType pieceType) {
+        final Piece piece = gameBoard.get(square).getPiece();
+        return piece != null &&
+               piece.getPieceAlliance() == alliance &&
+               piece.getPieceType() == pieceType &&
+               piece.isFirstMove();
+    }
+
     private static List<Tile> createGameBoard(final Builder builder) {
         final Tile[] tiles = new Tile[BoardUtils.NUM_TILES];
         for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
@@ -114,44 +181,68 @@ public class Board {
         // Vi skapar en builder, med vilken vi konstruerar vårt bräde
         final Builder builder = new Builder();
         // Pjäserna placeras ut i standardposition
-        builder.setPiece(new Rook(0, BLACK, true));
-        builder.setPiece(new Knight(1, BLACK, true));
-        builder.setPiece(new Bishop(2, BLACK, true));
-        builder.setPiece(new Queen(3, BLACK, true));
-        builder.setPiece(new King(4, BLACK, true));
-        builder.setPiece(new Bishop(5, BLACK, true));
-        builder.setPiece(new Knight(6, BLACK, true));
-        builder.setPiece(new Rook(7, BLACK, true));
-        builder.setPiece(new Pawn(8, BLACK, true));
-        builder.setPiece(new Pawn(9, BLACK, true));
-        builder.setPiece(new Pawn(10, BLACK, true));
-        builder.setPiece(new Pawn(11, BLACK, true));
-        builder.setPiece(new Pawn(12, BLACK, true));
-        builder.setPiece(new Pawn(13, BLACK, true));
-        builder.setPiece(new Pawn(14, BLACK, true));
-        builder.setPiece(new Pawn(15, BLACK, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.ROOK, BLACK, 0, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.KNIGHT, BLACK, 1, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.BISHOP, BLACK, 2, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.QUEEN, BLACK, 3, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.KING, BLACK, 4, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.BISHOP, BLACK, 5, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.KNIGHT, BLACK, 6, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.ROOK, BLACK, 7, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, BLACK, 8, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, BLACK, 9, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, BLACK, 10, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, BLACK, 11, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, BLACK, 12, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, BLACK, 13, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, BLACK, 14, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, BLACK, 15, true));
         // WHITE
-        builder.setPiece(new Pawn(48, WHITE, true));
-        builder.setPiece(new Pawn(49, WHITE, true));
-        builder.setPiece(new Pawn(50, WHITE, true));
-        builder.setPiece(new Pawn(51, WHITE, true));
-        builder.setPiece(new Pawn(52, WHITE, true));
-        builder.setPiece(new Pawn(53, WHITE, true));
-        builder.setPiece(new Pawn(54, WHITE, true));
-        builder.setPiece(new Pawn(55, WHITE, true));
-        builder.setPiece(new Rook(56, WHITE, true));
-        builder.setPiece(new Knight(57, WHITE, true));
-        builder.setPiece(new Bishop(58, WHITE, true));
-        builder.setPiece(new Queen(59, WHITE, true));
-        builder.setPiece(new King(60, WHITE, true));
-        builder.setPiece(new Bishop(61, WHITE, true));
-        builder.setPiece(new Knight(62, WHITE, true));
-        builder.setPiece(new Rook(63, WHITE, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, WHITE, 48, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, WHITE, 49, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, WHITE, 50, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, WHITE, 51, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, WHITE, 52, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, WHITE, 53, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, WHITE, 54, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.PAWN, WHITE, 55, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.ROOK, WHITE, 56, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.KNIGHT, WHITE, 57, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.BISHOP, WHITE, 58, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.QUEEN, WHITE, 59, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.KING, WHITE, 60, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.BISHOP, WHITE, 61, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.KNIGHT, WHITE, 62, true));
+        builder.setPiece(PieceUtils.getPiece(PieceType.ROOK, WHITE, 63, true));
 
         builder.setMoveMaker(WHITE);
         return builder.build();
     }
 
+    // Samma ställning med motståndaren vid draget och utan en passant, för nolldrag i sökningen
+    public Board createNullMoveBoard() {
+        final Builder builder = new Builder();
+        for (final Piece piece : this.whitePieces) {
+            builder.setPiece(piece);
+        }
+        for (final Piece piece : this.blackPieces) {
+            builder.setPiece(piece);
+        }
+        builder.setMoveMaker(this.currentPlayer.getOpponent().getAlliance());
+        long zobristHash = this.zobristHash ^ Zobrist.sideToMoveKey();
+        if (this.enPassantPawn != null) {
+            zobristHash ^= Zobrist.enPassantKey(this.enPassantPawn.getPiecePosition());
+        }
+        builder.setZobristHash(zobristHash);
+        builder.setPieceSquareScore(this.pieceSquareScore);
+        return builder.build();
+    }
+
+    // Beräknas en gång per bräde, för spelaren vid draget
+    public GameStatus getGameStatus() {
+        return this.currentPlayer.getGameStatus();
+    }
+
     public Iterable<Move> getAllLegalMoves() {
         return Iterables.unmodifiableIterable(Iterables.concat(this.whitePlayer.getLegalMoves(), this.blackPlayer.getLegalMoves()));
     }
@@ -165,6 +256,8 @@ public class Board {
         Map<Integer, Piece> boardConfig;
         Alliance nextMoveMaker;
         private Pawn enPassantPawn;
+        private Long zobristHash;
+        private Integer pieceSquareScore;
 
         public Builder() {
             this.boardConfig = new HashMap<>();
@@ -186,5 +279,15 @@ public class Board {
         public void setEnPassantPawn(Pawn movedPawn) {
             this.enPassantPawn = movedPawn;
         }
+
+        public Builder setZobristHash(final long zobristHash) {
+            this.zobristHash = zobristHash;
+            return this;
+        }
+
+        public Builder setPieceSquareScore(final int pieceSquareScore) {
+            this.pieceSquareScore = pieceSquareScore;
+            return this;
+        }
     }
 }
@@ -26,8 +26,28 @@ public class BoardUtils {
     public static final int NUM_TILES = 64;
     public static final int NUM_TILES_PER_ROW = 8;
 
+    // Förberäknade destinationer per ruta, så att dragen kan itereras utan kolumnkontroller
+    public static final long[] KNIGHT_ATTACKS = initLeaperAttacks(new int[][]{{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2},
+                                                                             {1, -2}, {1, 2}, {2, -1}, {2, 1}});
+    public static final long[] KING_ATTACKS = initLeaperAttacks(new int[][]{{-1, -1}, {-1, 0}, {-1, 1}, {0, -1},
+                                                                           {0, 1}, {1, -1}, {1, 0}, {1, 1}});
+    public static final long[] WHITE_PAWN_ATTACKS = initLeaperAttacks(new int[][]{{-1, -1}, {-1, 1}});
+    public static final long[] BLACK_PAWN_ATTACKS = initLeaperAttacks(new int[][]{{1, -1}, {1, 1}});
+    public static final long[] WHITE_PAWN_PUSHES = initLeaperAttacks(new int[][]{{-1, 0}});
+    public static final long[] BLACK_PAWN_PUSHES = initLeaperAttacks(new int[][]{{1, 0}});
+    public static final long[] WHITE_PAWN_JUMPS = initPawnJumps(SECOND_RANK, -2);
+    public static final long[] BLACK_PAWN_JUMPS = initPawnJumps(SEVENTH_RANK, 2);
+
+    public static final int WHITE_KING_SIDE_CASTLE = 1;
+    public static final int WHITE_QUEEN_SIDE_CASTLE = 2;
+    public static final int BLACK_KING_SIDE_CASTLE = 4;
+    public static final int BLACK_QUEEN_SIDE_CASTLE = 8;
+
+    // Rockadrättigheter som finns kvar när en pjäs flyttas från eller till rutan
+    private static final int[] CASTLING_RIGHTS_MASKS = initCastlingRightsMasks();
+
     private static final List<String> ALGEBRAIC_NOTATION = initializeAlgebraicNotation();
-    private final Map<String, Integer> POSITION_TO_COORDINATE = initializePositionToCoordinateMap();
+    private static final Map<String, Integer> POSITION_TO_COORDINATE = initializePositionToCoordinateMap();
     private static final int START_TILE_INDEX = 0;
 
     private static boolean[] initRow(int rowNumber) {
@@ -47,8 +67,49 @@ public class BoardUtils {
         return column;
     }
 
+    private static long[] initLeaperAttacks(final int[][] rowColumnOffsets) {
+        final long[] attacks = new long[NUM_TILES];
+        for (int square = 0; square < NUM_TILES; square++) {
+            final int row = square / NUM_TILES_PER_ROW;
+            final int column = square % NUM_TILES_PER_ROW;
+            for (final int[] offset : rowColumnOffsets) {
+                final int destinationRow = row + offset[0];
+                final int destinationColumn = column + offset[1];
+                if (destinationRow >= 0 && destinationRow < NUM_TILES_PER_ROW &&
+                    destinationColumn >= 0 && destinationColumn < NUM_TILES_PER_ROW) {
+                    attacks[square] |= 1L << (destinationRow * NUM_TILES_PER_ROW + destinationColumn);
+                }
+            }
+        }
+        return attacks;
+    }
 
-    private Map<String, Integer> initializePositionToCoordinateMap() {
+    private static long[] initPawnJumps(final boolean[] startRank, final int rowOffset) {
+        final long[] jumps = new long[NUM_TILES];
+        for (int square = 0; square < NUM_TILES; square++) {
+            if (startRank[square]) {
+                jumps[square] = 1L << (square + rowOffset * NUM_TILES_PER_ROW);
+            }
+        }
+        return jumps;
+    }
+
+    private static int[] initCastlingRightsMasks() {
+        final int[] masks = new int[NUM_TILES];
+        for (int square = 0; square < NUM_TILES; square++) {
+            masks[square] = WHITE_KING_SIDE_CASTLE | WHITE_QUEEN_SIDE_CASTLE |
+                            BLACK_KING_SIDE_CASTLE | BLACK_QUEEN_SIDE_CASTLE;
+        }
+        masks[60] &= ~(WHITE_KING_SIDE_CASTLE | WHITE_QUEEN_SIDE_CASTLE);
+        masks[63] &= ~WHITE_KING_SIDE_CASTLE;
+        masks[56] &= ~WHITE_QUEEN_SIDE_CASTLE;
+        masks[4] &= ~(BLACK_KING_SIDE_CASTLE | BLACK_QUEEN_SIDE_CASTLE);
+        masks[7] &= ~BLACK_KING_SIDE_CASTLE;
+        masks[0] &= ~BLACK_QUEEN_SIDE_CASTLE;
+        return masks;
+    }
+
+    private static Map<String, Integer> initializePositionToCoordinateMap() {
         final Map<String, Integer> positionToCoordinate = new HashMap<>();
         for (int i = START_TILE_INDEX; i < NUM_TILES; i++) {
             positionToCoordinate.put(ALGEBRAIC_NOTATION.get(i), i);
@@ -77,11 +138,26 @@ public class BoardUtils {
         return coordinate >=0 && coordinate < 64;
     }
 
-    public int getCoordinateAtPosition(final String position) {
+    public static int getCoordinateAtPosition(final String position) {
         return POSITION_TO_COORDINATE.get(position);
     }
 
     public static String getPositionAtCoordinate(final int coordinate) {
         return ALGEBRAIC_NOTATION.get(coordinate);
     }
+
+    public static int updateCastlingRights(final int castlingRights, final int from, final int to) {
+        return castlingRights & CASTLING_RIGHTS_MASKS[from] & CASTLING_RIGHTS_MASKS[to];
+    }
+
+    // Xorshift64*, snabb och tillräckligt jämn för Zobrist-nycklar och magiska tal. Samma frö
+    // ger alltid samma följd, fröet uppdateras på plats
+    static long nextRandom(final long[] seed) {
+        long x = seed[0];
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        seed[0] = x;
+        return x * 2685821657736338717L;
+    }
 }
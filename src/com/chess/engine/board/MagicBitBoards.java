@@ -0,0 +1,157 @@
+package com.chess.engine.board;
+
+// Förberäknade attacktabeller för tornets och löparens rörelser. En magisk multiplikation
+// översätter de relevanta blockerande pjäserna till ett index i tabellen, så att hela
+// attackmängden för en långväga pjäs fås med en enda uppslagning.
+// Tabellerna byggs en gång när klassen laddas och läses sedan av alla trådar utan lås.
+public final class MagicBitBoards {
+
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    // Fast frö så att samma magiska tal hittas vid varje start
+    private static final long MAGIC_SEED = 0x2545F4914F6CDD1DL;
+
+    private static final long[] ROOK_MASKS = new long[BoardUtils.NUM_TILES];
+    private static final long[] ROOK_MAGICS = new long[BoardUtils.NUM_TILES];
+    private static final int[] ROOK_SHIFTS = new int[BoardUtils.NUM_TILES];
+    private static final long[][] ROOK_ATTACKS = new long[BoardUtils.NUM_TILES][];
+
+    private static final long[] BISHOP_MASKS = new long[BoardUtils.NUM_TILES];
+    private static final long[] BISHOP_MAGICS = new long[BoardUtils.NUM_TILES];
+    private static final int[] BISHOP_SHIFTS = new int[BoardUtils.NUM_TILES];
+    private static final long[][] BISHOP_ATTACKS = new long[BoardUtils.NUM_TILES][];
+
+    // Rutorna mellan två rutor på samma linje, tom om rutorna inte ligger på linje
+    private static final long[][] SQUARES_BETWEEN = new long[BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+
+    static {
+        final long[] seed = {MAGIC_SEED};
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            initSquare(square, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_ATTACKS, seed);
+            initSquare(square, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_ATTACKS, seed);
+        }
+        for (int from = 0; from < BoardUtils.NUM_TILES; from++) {
+            for (int to = 0; to < BoardUtils.NUM_TILES; to++) {
+                final long toMask = BitBoard.squareMask(to);
+                final long fromMask = BitBoard.squareMask(from);
+                if ((rookAttacks(from, 0L) & toMask) != 0) {
+                    SQUARES_BETWEEN[from][to] = rookAttacks(from, toMask) & rookAttacks(to, fromMask);
+                } else if ((bishopAttacks(from, 0L) & toMask) != 0) {
+                    SQUARES_BETWEEN[from][to] = bishopAttacks(from, toMask) & bishopAttacks(to, fromMask);
+                }
+            }
+        }
+    }
+
+    private MagicBitBoards() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static long rookAttacks(final int square, final long occupancy) {
+        return ROOK_ATTACKS[square][(int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    public static long bishopAttacks(final int square, final long occupancy) {
+        return BISHOP_ATTACKS[square][(int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    public static long queenAttacks(final int square, final long occupancy) {
+        return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+    }
+
+    public static long squaresBetween(final int from, final int to) {
+        return SQUARES_BETWEEN[from][to];
+    }
+
+    private static void initSquare(final int square,
+                                   final int[][] directions,
+                                   final long[] masks,
+                                   final long[] magics,
+                                   final int[] shifts,
+                                   final long[][] attackTables,
+                                   final long[] seed) {
+        final long mask = relevantOccupancyMask(square, directions);
+        final int bits = Long.bitCount(mask);
+        final int size = 1 << bits;
+
+        // Alla delmängder av masken, tillsammans med de attacker de ger upphov till
+        final long[] occupancies = new long[size];
+        final long[] references = new long[size];
+        long subset = 0L;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            references[i] = slidingAttacks(square, directions, subset);
+            subset = (subset - mask) & mask;
+        }
+
+        final long[] table = new long[size];
+        final int[] epoch = new int[size];
+        int attempt = 0;
+        while (true) {
+            final long magic = nextSparseRandom(seed);
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            attempt++;
+            boolean collision = false;
+            for (int i = 0; i < size && !collision; i++) {
+                final int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+                if (epoch[index] != attempt) {
+                    epoch[index] = attempt;
+                    table[index] = references[i];
+                } else if (table[index] != references[i]) {
+                    collision = true;
+                }
+            }
+            if (!collision) {
+                masks[square] = mask;
+                magics[square] = magic;
+                shifts[square] = 64 - bits;
+                attackTables[square] = table;
+                return;
+            }
+        }
+    }
+
+    // Kantrutorna påverkar aldrig attackerna och lämnas därför utanför masken
+    private static long relevantOccupancyMask(final int square, final int[][] directions) {
+        long mask = 0L;
+        for (final int[] direction : directions) {
+            int row = square / BoardUtils.NUM_TILES_PER_ROW + direction[0];
+            int column = square % BoardUtils.NUM_TILES_PER_ROW + direction[1];
+            while (isOnBoard(row + direction[0], column + direction[1])) {
+                mask |= BitBoard.squareMask(row * BoardUtils.NUM_TILES_PER_ROW + column);
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long slidingAttacks(final int square, final int[][] directions, final long occupancy) {
+        long attacks = 0L;
+        for (final int[] direction : directions) {
+            int row = square / BoardUtils.NUM_TILES_PER_ROW + direction[0];
+            int column = square % BoardUtils.NUM_TILES_PER_ROW + direction[1];
+            while (isOnBoard(row, column)) {
+                final long target = BitBoard.squareMask(row * BoardUtils.NUM_TILES_PER_ROW + column);
+                attacks |= target;
+                if ((occupancy & target) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean isOnBoard(final int row, final int column) {
+        return row >= 0 && row < BoardUtils.NUM_TILES_PER_ROW && column >= 0 && column < BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    private static long nextSparseRandom(final long[] seed) {
+        return BoardUtils.nextRandom(seed) & BoardUtils.nextRandom(seed) & BoardUtils.nextRandom(seed);
+    }
+}
@@ -0,0 +1,311 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.move.Move;
+import com.chess.engine.move.MoveList;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.Arrays;
+
+import static com.chess.engine.move.MoveEncoding.*;
+
+// Muterbar position för sökning och perft. Till skillnad från Board, som är immutable och skapas
+// på nytt för varje drag, uppdateras denna position på plats med makeMove och återställs med
+// unmakeMove från en liten undo-post. Ett objekt får bara användas av en tråd åt gången.
+public final class MutableBoard {
+
+    private static final int NO_PIECE = -1;
+    private static final int NO_SQUARE = -1;
+    private static final int INITIAL_STACK_SIZE = 128;
+
+    private final long[] pieceBoards;
+    private final long[] occupancy;
+    private final int[] squares;
+    private Alliance sideToMove;
+    private int castlingRights;
+    private int enPassantSquare;
+    private long zobristHash;
+
+    private long[] undoStack;
+    private int undoCount;
+
+    public MutableBoard(final Board board) {
+        this.pieceBoards = new long[Alliance.values().length * BitBoard.NUM_PIECE_TYPES];
+        this.occupancy = new long[Alliance.values().length];
+        this.squares = new int[BoardUtils.NUM_TILES];
+        Arrays.fill(this.squares, NO_PIECE);
+        for (final Piece piece : board.getWhitePieces()) {
+            putPiece(piece.getPiecePosition(), BitBoard.index(piece.getPieceAlliance(), piece.getPieceType()));
+        }
+        for (final Piece piece : board.getBlackPieces()) {
+            putPiece(piece.getPiecePosition(), BitBoard.index(piece.getPieceAlliance(), piece.getPieceType()));
+        }
+        this.sideToMove = board.currentPlayer().getAlliance();
+        this.castlingRights = board.getCastlingRights();
+        this.enPassantSquare = board.getEnPassantPawn() != null ? board.getEnPassantPawn().getPiecePosition() : NO_SQUARE;
+        // Pjäsnycklarna har redan lagts till av putPiece
+        this.zobristHash ^= positionStateKey();
+        this.undoStack = new long[INITIAL_STACK_SIZE];
+        this.undoCount = 0;
+    }
+
+    public long getZobristHash() {
+        return this.zobristHash;
+    }
+
+    private long getPieces(final Alliance alliance, final PieceType pieceType) {
+        return this.pieceBoards[BitBoard.index(alliance, pieceType)];
+    }
+
+    private long getOccupancy(final Alliance alliance) {
+        return this.occupancy[alliance.ordinal()];
+    }
+
+    private long getOccupancy() {
+        return this.occupancy[0] | this.occupancy[1];
+    }
+
+    private boolean isSquareAttacked(final int square, final Alliance attacker) {
+        return BitBoard.attackersOf(this.pieceBoards, getOccupancy(), square, attacker) != 0;
+    }
+
+    private boolean isInCheck(final Alliance alliance) {
+        final long king = getPieces(alliance, PieceType.KING);
+        return king != 0 && isSquareAttacked(Long.numberOfTrailingZeros(king), opposite(alliance));
+    }
+
+    // Drag från Board-modellen. Specialdragen känns igen på positionen, så endast
+    // start- och målruta samt eventuell förvandlingspjäs behövs
+    public void makeMove(final Move move) {
+        makeMove(move.getCurrentCoordinate(), move.getDestinationCoordinate(), PieceType.QUEEN);
+    }
+
+    public void makeMove(final int move) {
+        makeMove(getFrom(move), getTo(move), isPromotion(move) ? getPromotionType(move) : PieceType.QUEEN);
+    }
+
+    public void makeMove(final int from, final int to, final PieceType promotionType) {
+        final int movedPiece = this.squares[from];
+        final boolean isPawn = pieceType(movedPiece) == PieceType.PAWN.ordinal();
+        int captureSquare = to;
+        boolean isEnPassant = false;
+        if (isPawn && this.squares[to] == NO_PIECE && column(from) != column(to)) {
+            captureSquare = this.enPassantSquare;
+            isEnPassant = true;
+        }
+        final int capturedPiece = this.squares[captureSquare];
+        pushUndo(from, to, movedPiece, capturedPiece, isEnPassant);
+        this.zobristHash ^= positionStateKey();
+
+        if (capturedPiece != NO_PIECE) {
+            removePiece(captureSquare);
+        }
+        removePiece(from);
+        if (isPawn && this.sideToMove.isPawnPromotionSquare(to)) {
+            putPiece(to, BitBoard.index(this.sideToMove, promotionType));
+        } else {
+            putPiece(to, movedPiece);
+        }
+        if (pieceType(movedPiece) == PieceType.KING.ordinal() && Math.abs(to - from) == 2) {
+            final int rookStart = to > from ? from + 3 : from - 4;
+            final int rookDestination = to > from ? from + 1 : from - 1;
+            putPiece(rookDestination, removePiece(rookStart));
+        }
+        this.castlingRights = BoardUtils.updateCastlingRights(this.castlingRights, from, to);
+        this.enPassantSquare = isPawn && Math.abs(to - from) == 16 ? to : NO_SQUARE;
+        this.sideToMove = opposite(this.sideToMove);
+        this.zobristHash ^= positionStateKey();
+    }
+
+    public void unmakeMove() {
+        if (this.undoCount == 0) {
+            throw new IllegalStateException("No move to unmake");
+        }
+        final long undo = this.undoStack[--this.undoCount];
+        final int from = (int) (undo & 0x3F);
+        final int to = (int) ((undo >>> 6) & 0x3F);
+        final int movedPiece = (int) ((undo >>> 12) & 0xF);
+        final int capturedPiece = (int) ((undo >>> 16) & 0xF) - 1;
+        final boolean isEnPassant = ((undo >>> 20) & 1) != 0;
+        final int previousCastlingRights = (int) ((undo >>> 21) & 0xF);
+        final int previousEnPassantSquare = (int) ((undo >>> 25) & 0x7F) - 1;
+
+        this.zobristHash ^= positionStateKey();
+        this.sideToMove = opposite(this.sideToMove);
+        if (pieceType(movedPiece) == PieceType.KING.ordinal() && Math.abs(to - from) == 2) {
+            final int rookStart = to > from ? from + 3 : from - 4;
+            final int rookDestination = to > from ? from + 1 : from - 1;
+            putPiece(rookStart, removePiece(rookDestination));
+        }
+        removePiece(to);
+        putPiece(from, movedPiece);
+        if (capturedPiece != NO_PIECE) {
+            putPiece(isEnPassant ? previousEnPassantSquare : to, capturedPiece);
+        }
+        this.castlingRights = previousCastlingRights;
+        this.enPassantSquare = previousEnPassantSquare;
+        this.zobristHash ^= positionStateKey();
+    }
+
+    // Den del av nyckeln som inte kommer från pjäserna
+    private long positionStateKey() {
+        long key = Zobrist.castlingKey(this.castlingRights);
+        if (this.enPassantSquare != NO_SQUARE) {
+            key ^= Zobrist.enPassantKey(this.enPassantSquare);
+        }
+        return this.sideToMove.isBlack() ? key ^ Zobrist.sideToMoveKey() : key;
+    }
+
+    // Lagliga drag, filtrerade genom att göra och ta tillbaka varje drag på plats
+    public void generateLegalMoves(final MoveList moves) {
+        final int start = moves.size();
+        generatePseudoLegalMoves(moves);
+        final Alliance mover = this.sideToMove;
+        int legalCount = start;
+        for (int i = start; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            makeMove(move);
+            if (!isInCheck(mover)) {
+                moves.set(legalCount++, move);
+            }
+            unmakeMove();
+        }
+        moves.truncate(legalCount);
+    }
+
+    // Samma regler som pjäsernas calculateLegalMoves, bönder förvandlas till dam
+    private void generatePseudoLegalMoves(final MoveList moves) {
+        final Alliance us = this.sideToMove;
+        final long own = getOccupancy(us);
+        final long opponents = getOccupancy(opposite(us));
+        final long all = own | opponents;
+
+        for (long pawns = getPieces(us, PieceType.PAWN); pawns != 0; pawns &= pawns - 1) {
+            final int from = Long.numberOfTrailingZeros(pawns);
+            final long push = us.getPawnPushes(from) & ~all;
+            if (push != 0) {
+                addPawnMove(moves, from, Long.numberOfTrailingZeros(push), false);
+                final long jump = us.getPawnJumps(from) & ~all;
+                if (jump != 0) {
+                    moves.add(encode(from, Long.numberOfTrailingZeros(jump), DOUBLE_PAWN_PUSH));
+                }
+            }
+            final long attacks = us.getPawnAttacks(from);
+            for (long captures = attacks & opponents; captures != 0; captures &= captures - 1) {
+                addPawnMove(moves, from, Long.numberOfTrailingZeros(captures), true);
+            }
+            if (this.enPassantSquare != NO_SQUARE) {
+                final int target = this.enPassantSquare + (us.getDirection() * 8);
+                if ((attacks & BitBoard.squareMask(target)) != 0) {
+                    moves.add(encode(from, target, EN_PASSANT));
+                }
+            }
+        }
+        for (long knights = getPieces(us, PieceType.KNIGHT); knights != 0; knights &= knights - 1) {
+            final int from = Long.numberOfTrailingZeros(knights);
+            addMoves(moves, from, BoardUtils.KNIGHT_ATTACKS[from] & ~own, opponents);
+        }
+        final long queens = getPieces(us, PieceType.QUEEN);
+        for (long diagonals = getPieces(us, PieceType.BISHOP) | queens; diagonals != 0; diagonals &= diagonals - 1) {
+            final int from = Long.numberOfTrailingZeros(diagonals);
+            addMoves(moves, from, MagicBitBoards.bishopAttacks(from, all) & ~own, opponents);
+        }
+        for (long straights = getPieces(us, PieceType.ROOK) | queens; straights != 0; straights &= straights - 1) {
+            final int from = Long.numberOfTrailingZeros(straights);
+            addMoves(moves, from, MagicBitBoards.rookAttacks(from, all) & ~own, opponents);
+        }
+        final long king = getPieces(us, PieceType.KING);
+        if (king != 0) {
+            final int from = Long.numberOfTrailingZeros(king);
+            addMoves(moves, from, BoardUtils.KING_ATTACKS[from] & ~own, opponents);
+            generateCastles(moves, from, all);
+        }
+    }
+
+    private void generateCastles(final MoveList moves, final int kingSquare, final long all) {
+        final Alliance us = this.sideToMove;
+        final int kingSide = us.isWhite() ? BoardUtils.WHITE_KING_SIDE_CASTLE : BoardUtils.BLACK_KING_SIDE_CASTLE;
+        final int queenSide = us.isWhite() ? BoardUtils.WHITE_QUEEN_SIDE_CASTLE : BoardUtils.BLACK_QUEEN_SIDE_CASTLE;
+        if ((this.castlingRights & (kingSide | queenSide)) == 0) {
+            return;
+        }
+        final Alliance opponent = opposite(us);
+        if (isSquareAttacked(kingSquare, opponent)) {
+            return;
+        }
+        if ((this.castlingRights & kingSide) != 0 &&
+            (all & (BitBoard.squareMask(kingSquare + 1) | BitBoard.squareMask(kingSquare + 2))) == 0 &&
+            !isSquareAttacked(kingSquare + 1, opponent) && !isSquareAttacked(kingSquare + 2, opponent)) {
+            moves.add(encode(kingSquare, kingSquare + 2, KING_CASTLE));
+        }
+        if ((this.castlingRights & queenSide) != 0 &&
+            (all & (BitBoard.squareMask(kingSquare - 1) | BitBoard.squareMask(kingSquare - 2) |
+                    BitBoard.squareMask(kingSquare - 3))) == 0 &&
+            !isSquareAttacked(kingSquare - 1, opponent) && !isSquareAttacked(kingSquare - 2, opponent)) {
+            moves.add(encode(kingSquare, kingSquare - 2, QUEEN_CASTLE));
+        }
+    }
+
+    private void addPawnMove(final MoveList moves, final int from, final int to, final boolean isCapture) {
+        if (this.sideToMove.isPawnPromotionSquare(to)) {
+            moves.add(encodePromotion(from, to, isCapture, PieceType.QUEEN));
+        } else {
+            moves.add(encode(from, to, isCapture ? CAPTURE : QUIET));
+        }
+    }
+
+    private static void addMoves(final MoveList moves, final int from, final long destinations, final long opponents) {
+        for (long remaining = destinations; remaining != 0; remaining &= remaining - 1) {
+            final int to = Long.numberOfTrailingZeros(remaining);
+            moves.add(encode(from, to, (opponents & BitBoard.squareMask(to)) != 0 ? CAPTURE : QUIET));
+        }
+    }
+
+    private void pushUndo(final int from,
+                          final int to,
+                          final int movedPiece,
+                          final int capturedPiece,
+                          final boolean isEnPassant) {
+        if (this.undoCount == this.undoStack.length) {
+            this.undoStack = Arrays.copyOf(this.undoStack, this.undoStack.length * 2);
+        }
+        this.undoStack[this.undoCount++] = from |
+                                           (long) to << 6 |
+                                           (long) movedPiece << 12 |
+                                           (long) (capturedPiece + 1) << 16 |
+                                           (isEnPassant ? 1L : 0L) << 20 |
+                                           (long) this.castlingRights << 21 |
+                                           (long) (this.enPassantSquare + 1) << 25;
+    }
+
+    private void putPiece(final int square, final int piece) {
+        final long mask = BitBoard.squareMask(square);
+        this.squares[square] = piece;
+        this.zobristHash ^= Zobrist.pieceKey(piece, square);
+        this.pieceBoards[piece] |= mask;
+        this.occupancy[piece / BitBoard.NUM_PIECE_TYPES] |= mask;
+    }
+
+    private int removePiece(final int square) {
+        final long mask = BitBoard.squareMask(square);
+        final int piece = this.squares[square];
+        this.squares[square] = NO_PIECE;
+        this.zobristHash ^= Zobrist.pieceKey(piece, square);
+        this.pieceBoards[piece] &= ~mask;
+        this.occupancy[piece / BitBoard.NUM_PIECE_TYPES] &= ~mask;
+        return piece;
+    }
+
+    private static int pieceType(final int piece) {
+        return piece % BitBoard.NUM_PIECE_TYPES;
+    }
+
+    private static int column(final int square) {
+        return square % BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    private static Alliance opposite(final Alliance alliance) {
+        return alliance.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+    }
+}
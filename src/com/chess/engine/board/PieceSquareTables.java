@@ -0,0 +1,178 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+// Material och pjäs-rutvärden för mittspel och slutspel, packade i en int så att båda kan
+// uppdateras med en addition. Värdena är sedda från vit, svarta pjäser räknas negativt.
+// Brädet håller summan för sina pjäser och dragen uppdaterar den, precis som Zobrist-nyckeln.
+public final class PieceSquareTables {
+
+    // Fas 24 är fullt mittspel och 0 är rent slutspel
+    public static final int MAX_PHASE = 24;
+    private static final int[] PHASE_WEIGHTS = {0, 1, 1, 2, 4, 0};
+
+    // Tabellerna är skrivna från vit med rad 8 överst, samma ordning som brädets rutor
+    private static final int[] PAWN_TABLE = {
+             0,  0,  0,  0,  0,  0,  0,  0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+             5,  5, 10, 25, 25, 10,  5,  5,
+             0,  0,  0, 20, 20,  0,  0,  0,
+             5, -5,-10,  0,  0,-10, -5,  5,
+             5, 10, 10,-20,-20, 10, 10,  5,
+             0,  0,  0,  0,  0,  0,  0,  0
+    };
+
+    private static final int[] PAWN_ENDGAME_TABLE = {
+             0,  0,  0,  0,  0,  0,  0,  0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            15, 15, 15, 15, 15, 15, 15, 15,
+             5,  5,  5,  5,  5,  5,  5,  5,
+             0,  0,  0,  0,  0,  0,  0,  0,
+             0,  0,  0,  0,  0,  0,  0,  0
+    };
+
+    private static final int[] KNIGHT_TABLE = {
+            -50,-40,-30,-30,-30,-30,-40,-50,
+            -40,-20,  0,  0,  0,  0,-20,-40,
+            -30,  0, 10, 15, 15, 10,  0,-30,
+            -30,  5, 15, 20, 20, 15,  5,-30,
+            -30,  0, 15, 20, 20, 15,  0,-30,
+            -30,  5, 10, 15, 15, 10,  5,-30,
+            -40,-20,  0,  5,  5,  0,-20,-40,
+            -50,-40,-30,-30,-30,-30,-40,-50
+    };
+
+    private static final int[] BISHOP_TABLE = {
+            -20,-10,-10,-10,-10,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0,  5, 10, 10,  5,  0,-10,
+            -10,  5,  5, 10, 10,  5,  5,-10,
+            -10,  0, 10, 10, 10, 10,  0,-10,
+            -10, 10, 10, 10, 10, 10, 10,-10,
+            -10,  5,  0,  0,  0,  0,  5,-10,
+            -20,-10,-10,-10,-10,-10,-10,-20
+    };
+
+    private static final int[] ROOK_TABLE = {
+             0,  0,  0,  0,  0,  0,  0,  0,
+             5, 10, 10, 10, 10, 10, 10,  5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+             0,  0,  0,  5,  5,  0,  0,  0
+    };
+
+    private static final int[] QUEEN_TABLE = {
+            -20,-10,-10, -5, -5,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0,  5,  5,  5,  5,  0,-10,
+             -5,  0,  5,  5,  5,  5,  0, -5,
+              0,  0,  5,  5,  5,  5,  0, -5,
+            -10,  5,  5,  5,  5,  5,  0,-10,
+            -10,  0,  5,  0,  0,  0,  0,-10,
+            -20,-10,-10, -5, -5,-10,-10,-20
+    };
+
+    private static final int[] KING_TABLE = {
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -20,-30,-30,-40,-40,-30,-30,-20,
+            -10,-20,-20,-20,-20,-20,-20,-10,
+             20, 20,  0,  0,  0,  0, 20, 20,
+             20, 30, 10,  0,  0, 10, 30, 20
+    };
+
+    private static final int[] KING_ENDGAME_TABLE = {
+            -50,-40,-30,-20,-20,-30,-40,-50,
+            -30,-20,-10,  0,  0,-10,-20,-30,
+            -30,-10, 20, 30, 30, 20,-10,-30,
+            -30,-10, 30, 40, 40, 30,-10,-30,
+            -30,-10, 30, 40, 40, 30,-10,-30,
+            -30,-10, 20, 30, 30, 20,-10,-30,
+            -30,-30,  0,  0,  0,  0,-30,-30,
+            -50,-30,-30,-30,-30,-30,-30,-50
+    };
+
+    private static final int[][] SCORES = initScores();
+
+    private PieceSquareTables() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static int score(final Piece piece) {
+        return score(piece.getPieceAlliance(), piece.getPieceType(), piece.getPiecePosition());
+    }
+
+    public static int score(final Alliance alliance, final PieceType pieceType, final int square) {
+        return SCORES[BitBoard.index(alliance, pieceType)][square];
+    }
+
+    public static int middlegameScore(final int score) {
+        return (score + 0x8000) >> 16;
+    }
+
+    public static int endgameScore(final int score) {
+        return (short) score;
+    }
+
+    // Blandar mittspels- och slutspelsvärdet efter hur mycket material som finns kvar
+    public static int taperedScore(final int score, final int phase) {
+        return (middlegameScore(score) * phase + endgameScore(score) * (MAX_PHASE - phase)) / MAX_PHASE;
+    }
+
+    public static int calculatePhase(final BitBoard bitBoard) {
+        int phase = 0;
+        for (final PieceType pieceType : PieceType.values()) {
+            phase += PHASE_WEIGHTS[pieceType.ordinal()] *
+                     Long.bitCount(bitBoard.getPieces(Alliance.WHITE, pieceType) |
+                                   bitBoard.getPieces(Alliance.BLACK, pieceType));
+        }
+        return Math.min(phase, MAX_PHASE);
+    }
+
+    // Hela summan räknad från grunden, används för bräden som inte skapats av ett drag
+    static int calculateScore(final Board board) {
+        int score = 0;
+        for (final Piece piece : board.getWhitePieces()) {
+            score += score(piece);
+        }
+        for (final Piece piece : board.getBlackPieces()) {
+            score += score(piece);
+        }
+        return score;
+    }
+
+    private static int[][] initScores() {
+        final int[][] middlegameTables = {PAWN_TABLE, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE, KING_TABLE};
+        final int[][] endgameTables = {PAWN_ENDGAME_TABLE, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE, KING_ENDGAME_TABLE};
+        final int[][] scores = new int[Alliance.values().length * BitBoard.NUM_PIECE_TYPES][BoardUtils.NUM_TILES];
+        for (final PieceType pieceType : PieceType.values()) {
+            // Kungen finns alltid på båda sidor, så dess värde tar ut sig självt
+            final int material = pieceType == PieceType.KING ? 0 : pieceType.getPieceValue();
+            for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+                // Svart läser tabellen spegelvänd, så att rad 1 för svart motsvarar rad 8 för vit
+                final int mirroredSquare = square ^ 56;
+                scores[BitBoard.index(Alliance.WHITE, pieceType)][square] =
+                        pack(material + middlegameTables[pieceType.ordinal()][square],
+                             material + endgameTables[pieceType.ordinal()][square]);
+                scores[BitBoard.index(Alliance.BLACK, pieceType)][square] =
+                        -pack(material + middlegameTables[pieceType.ordinal()][mirroredSquare],
+                              material + endgameTables[pieceType.ordinal()][mirroredSquare]);
+            }
+        }
+        return scores;
+    }
+
+    private static int pack(final int middlegameScore, final int endgameScore) {
+        return (middlegameScore << 16) + endgameScore;
+    }
+}
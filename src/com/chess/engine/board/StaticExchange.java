@@ -0,0 +1,83 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.move.Move;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+// Statisk slagväxling (SEE): vad ett slag vinner eller förlorar om båda sidor fortsätter slå på
+// målrutan med sin billigaste pjäs. Räknas helt på bitboards, utan att några bräden skapas.
+// Pjäser bakom en slagen angripare (t.ex. ett torn bakom en dam) kommer med när vägen öppnas.
+public final class StaticExchange {
+
+    private static final int MAX_EXCHANGES = 32;
+
+    private StaticExchange() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    // Materialvinst för sidan som gör draget, i samma enheter som PieceType
+    public static int evaluate(final Board board, final Move move) {
+        final Piece attackedPiece = move.getAttackedPiece();
+        final Piece movedPiece = move.getMovedPiece();
+        final BitBoard bitBoard = board.getBitBoard();
+        long occupancy = bitBoard.getOccupancy() & ~BitBoard.squareMask(movedPiece.getPiecePosition());
+        int capturedValue = 0;
+        if (attackedPiece != null) {
+            capturedValue = attackedPiece.getPieceValue();
+            // Vid en passant står den slagna bonden inte på målrutan
+            occupancy &= ~BitBoard.squareMask(attackedPiece.getPiecePosition());
+        }
+        return evaluate(bitBoard, move.getDestinationCoordinate(), movedPiece.getPieceType(),
+                        movedPiece.getPieceAlliance(), capturedValue, occupancy);
+    }
+
+    private static int evaluate(final BitBoard bitBoard,
+                                final int square,
+                                final PieceType firstAttacker,
+                                final Alliance firstSide,
+                                final int capturedValue,
+                                final long startOccupancy) {
+        final int[] gain = new int[MAX_EXCHANGES];
+        long occupancy = startOccupancy;
+        long attackers = (bitBoard.getAttackers(square, Alliance.WHITE, occupancy) |
+                          bitBoard.getAttackers(square, Alliance.BLACK, occupancy)) & occupancy;
+        PieceType attacker = firstAttacker;
+        Alliance side = firstSide;
+        gain[0] = capturedValue;
+        int depth = 0;
+        while (depth + 1 < MAX_EXCHANGES) {
+            depth++;
+            // Värdet om motståndaren slår tillbaka på pjäsen som just slog
+            gain[depth] = attacker.getPieceValue() - gain[depth - 1];
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                break;
+            }
+            side = side.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+            final long sideAttackers = attackers & bitBoard.getOccupancy(side);
+            if (sideAttackers == 0) {
+                break;
+            }
+            attacker = leastValuableAttacker(bitBoard, sideAttackers, side);
+            final long attackerMask = Long.lowestOneBit(sideAttackers & bitBoard.getPieces(side, attacker));
+            occupancy &= ~attackerMask;
+            // Nya angripare kan bara dyka upp längs linjer, när en pjäs framför dem försvinner
+            attackers = (bitBoard.getAttackers(square, Alliance.WHITE, occupancy) |
+                         bitBoard.getAttackers(square, Alliance.BLACK, occupancy)) & occupancy;
+        }
+        // Sista slaget i kedjan görs bara om det lönar sig, och så vidare bakåt
+        while (--depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    private static PieceType leastValuableAttacker(final BitBoard bitBoard, final long attackers, final Alliance side) {
+        for (final PieceType pieceType : PieceType.values()) {
+            if ((attackers & bitBoard.getPieces(side, pieceType)) != 0) {
+                return pieceType;
+            }
+        }
+        throw new IllegalStateException("No attacker among " + Long.toHexString(attackers));
+    }
+}
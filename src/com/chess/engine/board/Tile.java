@@ -1,6 +1,7 @@
 package com.chess.engine.board;
 
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.PieceUtils;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -9,6 +10,8 @@ import java.util.Map;
 public abstract class Tile {
     protected final int tileCoordinate;
     private static final Map<Integer, EmptyTile> EMPTY_TILES_CACHE = createAllPossibleEmptyTiles();
+    // En ruta per möjlig pjäs, indexerad som PieceUtils
+    private static final OccupiedTile[] OCCUPIED_TILES_CACHE = new OccupiedTile[PieceUtils.NUM_PIECES];
 
     private static Map<Integer, EmptyTile> createAllPossibleEmptyTiles() {
         final Map<Integer, EmptyTile> emptyTileMap = new HashMap<>();
@@ -22,7 +25,21 @@ public abstract class Tile {
     }
 
     public static Tile createTile(final int tileCoordinate, final Piece piece) {
-        return piece != null ? new OccupiedTile(tileCoordinate, piece) : EMPTY_TILES_CACHE.get(tileCoordinate);
+        if (piece == null) {
+            return EMPTY_TILES_CACHE.get(tileCoordinate);
+        }
+        if (!PieceUtils.isCanonical(piece)) {
+            return new OccupiedTile(tileCoordinate, piece);
+        }
+        // Rutan skapas första gången pjäsen används. Två trådar kan skapa var sin ruta,
+        // men de är likvärdiga och vilken som helst kan sparas
+        final int index = PieceUtils.index(piece);
+        OccupiedTile tile = OCCUPIED_TILES_CACHE[index];
+        if (tile == null) {
+            tile = new OccupiedTile(tileCoordinate, piece);
+            OCCUPIED_TILES_CACHE[index] = tile;
+        }
+        return tile;
     }
     private Tile(final int tileCoordinate) {
         this.tileCoordinate = tileCoordinate;
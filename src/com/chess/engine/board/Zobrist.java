@@ -0,0 +1,82 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+// Zobrist-nycklar för att identifiera en position med ett 64-bitars tal. Nyckeln täcker
+// pjäserna, vems tur det är, rockadrättigheterna och en passant-bonden, och uppdateras
+// inkrementellt av dragen i stället för att räknas om för varje nytt bräde.
+public final class Zobrist {
+
+    // Fast frö så att samma position alltid får samma nyckel, även mellan körningar
+    private static final long ZOBRIST_SEED = 0x6A09E667F3BCC908L;
+
+    private static final long[][] PIECE_KEYS = new long[Alliance.values().length * BitBoard.NUM_PIECE_TYPES][BoardUtils.NUM_TILES];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[BoardUtils.NUM_TILES];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        final long[] seed = {ZOBRIST_SEED};
+        for (final long[] pieceKeys : PIECE_KEYS) {
+            for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+                pieceKeys[square] = BoardUtils.nextRandom(seed);
+            }
+        }
+        // Inga rättigheter ger ingen nyckel, så att positioner utan rockad hashas enbart på pjäserna
+        for (int rights = 1; rights < CASTLING_KEYS.length; rights++) {
+            CASTLING_KEYS[rights] = BoardUtils.nextRandom(seed);
+        }
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            EN_PASSANT_KEYS[square] = BoardUtils.nextRandom(seed);
+        }
+        BLACK_TO_MOVE_KEY = BoardUtils.nextRandom(seed);
+    }
+
+    private Zobrist() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static long pieceKey(final Piece piece) {
+        return pieceKey(piece.getPieceAlliance(), piece.getPieceType(), piece.getPiecePosition());
+    }
+
+    public static long pieceKey(final Alliance alliance, final PieceType pieceType, final int square) {
+        return PIECE_KEYS[BitBoard.index(alliance, pieceType)][square];
+    }
+
+    static long pieceKey(final int pieceIndex, final int square) {
+        return PIECE_KEYS[pieceIndex][square];
+    }
+
+    public static long castlingKey(final int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    public static long enPassantKey(final int enPassantPawnSquare) {
+        return EN_PASSANT_KEYS[enPassantPawnSquare];
+    }
+
+    public static long sideToMoveKey() {
+        return BLACK_TO_MOVE_KEY;
+    }
+
+    // Hela nyckeln räknad från grunden, används för bräden som inte skapats av ett drag
+    static long calculateHash(final Board board) {
+        long hash = 0L;
+        for (final Piece piece : board.getWhitePieces()) {
+            hash ^= pieceKey(piece);
+        }
+        for (final Piece piece : board.getBlackPieces()) {
+            hash ^= pieceKey(piece);
+        }
+        if (board.getEnPassantPawn() != null) {
+            hash ^= enPassantKey(board.getEnPassantPawn().getPiecePosition());
+        }
+        if (board.currentPlayer().getAlliance().isBlack()) {
+            hash ^= BLACK_TO_MOVE_KEY;
+        }
+        return hash ^ castlingKey(board.getCastlingRights());
+    }
+}
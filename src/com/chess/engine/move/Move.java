@@ -2,8 +2,12 @@ package com.chess.engine.move;
 
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.PieceSquareTables;
+import com.chess.engine.board.Zobrist;
 import com.chess.engine.pieces.Pawn;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.pieces.PieceUtils;
 import com.chess.engine.pieces.Rook;
 
 
@@ -95,9 +99,42 @@ public abstract class Move {
         }
         builder.setPiece(this.movedPiece.movePiece(this));
         builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+        builder.setZobristHash(calculateZobristHash());
+        builder.setPieceSquareScore(calculatePieceSquareScore());
         return builder.build();
     }
 
+    // Nyckeln för brädet efter draget, uppdaterad från nuvarande bräde i stället för att räknas om
+    protected long calculateZobristHash() {
+        final int currentCoordinate = getCurrentCoordinate();
+        long hash = this.board.getZobristHash() ^
+                    Zobrist.pieceKey(this.movedPiece) ^
+                    Zobrist.pieceKey(this.movedPiece.getPieceAlliance(), this.movedPiece.getPieceType(), this.destinationCoordinate);
+        final Piece attackedPiece = getAttackedPiece();
+        if (attackedPiece != null) {
+            hash ^= Zobrist.pieceKey(attackedPiece);
+        }
+        final int castlingRights = this.board.getCastlingRights();
+        hash ^= Zobrist.castlingKey(castlingRights) ^
+                Zobrist.castlingKey(BoardUtils.updateCastlingRights(castlingRights, currentCoordinate, this.destinationCoordinate));
+        if (this.board.getEnPassantPawn() != null) {
+            hash ^= Zobrist.enPassantKey(this.board.getEnPassantPawn().getPiecePosition());
+        }
+        return hash ^ Zobrist.sideToMoveKey();
+    }
+
+    // Brädets material- och rutvärden efter draget, uppdaterade på samma sätt som nyckeln
+    protected int calculatePieceSquareScore() {
+        int score = this.board.getPieceSquareScore() -
+                    PieceSquareTables.score(this.movedPiece) +
+                    PieceSquareTables.score(this.movedPiece.getPieceAlliance(), this.movedPiece.getPieceType(), this.destinationCoordinate);
+        final Piece attackedPiece = getAttackedPiece();
+        if (attackedPiece != null) {
+            score -= PieceSquareTables.score(attackedPiece);
+        }
+        return score;
+    }
+
     public static class AttackMove extends Move {
         final Piece attackedPiece;
 
@@ -234,6 +271,8 @@ public abstract class Move {
             }
             builder.setPiece(this.movedPiece.movePiece(this));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setZobristHash(calculateZobristHash());
+            builder.setPieceSquareScore(calculatePieceSquareScore());
             return builder.build();
         }
     }
@@ -258,6 +297,8 @@ public abstract class Move {
             builder.setPiece(movedPawn);
             builder.setEnPassantPawn(movedPawn);
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setZobristHash(calculateZobristHash() ^ Zobrist.enPassantKey(this.destinationCoordinate));
+            builder.setPieceSquareScore(calculatePieceSquareScore());
             return builder.build();
         }
 
@@ -295,8 +336,16 @@ public abstract class Move {
             for (final Piece piece : pawnMovedBoard.currentPlayer().getOpponent().getActivePieces()) {
                 builder.setPiece(piece);
             }
-            builder.setPiece(this.promotedPawn.getPromotionPiece().movePiece(this));
+            final Piece promotionPiece = this.promotedPawn.getPromotionPiece().movePiece(this);
+            builder.setPiece(promotionPiece);
             builder.setMoveMaker(pawnMovedBoard.currentPlayer().getAlliance());
+            // Bonden på målrutan byts mot den nya pjäsen
+            builder.setZobristHash(pawnMovedBoard.getZobristHash() ^
+                                   Zobrist.pieceKey(this.promotedPawn.getPieceAlliance(), this.promotedPawn.getPieceType(), this.destinationCoordinate) ^
+                                   Zobrist.pieceKey(promotionPiece));
+            builder.setPieceSquareScore(pawnMovedBoard.getPieceSquareScore() -
+                                        PieceSquareTables.score(this.promotedPawn.getPieceAlliance(), this.promotedPawn.getPieceType(), this.destinationCoordinate) +
+                                        PieceSquareTables.score(promotionPiece));
             return builder.build();
         }
 
@@ -370,8 +419,14 @@ public abstract class Move {
                 builder.setPiece(piece);
             }
             builder.setPiece(this.movedPiece.movePiece(this));
-            builder.setPiece(new Rook(this.castleRookDestination, this.castleRook.getPieceAlliance(), false));
+            builder.setPiece(PieceUtils.getMovedPiece(this.castleRook, this.castleRookDestination));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setZobristHash(calculateZobristHash() ^
+                                   Zobrist.pieceKey(this.castleRook) ^
+                                   Zobrist.pieceKey(this.castleRook.getPieceAlliance(), PieceType.ROOK, this.castleRookDestination));
+            builder.setPieceSquareScore(calculatePieceSquareScore() -
+                                        PieceSquareTables.score(this.castleRook) +
+                                        PieceSquareTables.score(this.castleRook.getPieceAlliance(), PieceType.ROOK, this.castleRookDestination));
             return builder.build();
         }
 
@@ -475,13 +530,12 @@ public abstract class Move {
         public static Move createMove(final Board board,
                                       final int currentCoordinate,
                                       final int destinationCoordinate) {
-            for (final Move move : board.getAllLegalMoves()) {
-                if (move.getCurrentCoordinate() == currentCoordinate &&
-                    move.getDestinationCoordinate() == destinationCoordinate) {
-                    return move;
-                }
+            // Startrutan har bara en pjäs, så högst en av spelarna kan ha draget
+            final Move move = board.currentPlayer().getLegalMove(currentCoordinate, destinationCoordinate);
+            if (move != NULL_MOVE) {
+                return move;
             }
-            return NULL_MOVE;
+            return board.currentPlayer().getOpponent().getLegalMove(currentCoordinate, destinationCoordinate);
         }
     }
 }
\ No newline at end of file
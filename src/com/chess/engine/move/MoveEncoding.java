@@ -0,0 +1,111 @@
+package com.chess.engine.move;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import static com.chess.engine.move.Move.*;
+
+// Ett drag packat i en int, så att sökning och perft kan hantera drag utan att skapa objekt.
+// Bit 0-5 startruta, bit 6-11 målruta, bit 12-15 flaggor och bit 16-18 förvandlingspjäsens typ.
+public final class MoveEncoding {
+
+    public static final int NO_MOVE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int FLAGS_SHIFT = 12;
+    private static final int FLAGS_MASK = 0xF;
+    private static final int PROMOTION_SHIFT = 16;
+    private static final int PROMOTION_MASK = 0x7;
+
+    private MoveEncoding() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static int encode(final int from, final int to, final int flags) {
+        return from | (to << 6) | (flags << FLAGS_SHIFT);
+    }
+
+    public static int encodePromotion(final int from, final int to, final boolean isCapture, final PieceType promotionType) {
+        return encode(from, to, PROMOTION | (isCapture ? CAPTURE : QUIET)) | (promotionType.ordinal() << PROMOTION_SHIFT);
+    }
+
+    public static int getFrom(final int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int getTo(final int move) {
+        return (move >>> 6) & SQUARE_MASK;
+    }
+
+    public static int getFlags(final int move) {
+        return (move >>> FLAGS_SHIFT) & FLAGS_MASK;
+    }
+
+    public static boolean isCapture(final int move) {
+        return (getFlags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(final int move) {
+        return (getFlags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isEnPassant(final int move) {
+        return getFlags(move) == EN_PASSANT;
+    }
+
+    public static PieceType getPromotionType(final int move) {
+        return PieceType.values()[(move >>> PROMOTION_SHIFT) & PROMOTION_MASK];
+    }
+
+    // Adapter från dragobjekten, t.ex. för drag som kommer från GUI:t eller MoveLog
+    public static int encode(final Move move) {
+        if (move == NULL_MOVE) {
+            return NO_MOVE;
+        }
+        final int from = move.getCurrentCoordinate();
+        final int to = move.getDestinationCoordinate();
+        if (move instanceof PawnPromotion) {
+            return encodePromotion(from, to, move.isAttack(), PieceType.QUEEN);
+        }
+        if (move instanceof KingSideCastleMove) {
+            return encode(from, to, KING_CASTLE);
+        }
+        if (move instanceof QueenSideCastleMove) {
+            return encode(from, to, QUEEN_CASTLE);
+        }
+        if (move instanceof PawnEnPassantAttackMove) {
+            return encode(from, to, EN_PASSANT);
+        }
+        if (move instanceof PawnJump) {
+            return encode(from, to, DOUBLE_PAWN_PUSH);
+        }
+        return encode(from, to, move.isAttack() ? CAPTURE : QUIET);
+    }
+
+    // Adapter till dragobjekten. Brädmodellen förvandlar alltid till dam, så förvandlingspjäsen
+    // behöver inte matchas
+    public static Move decode(final Board board, final int move) {
+        if (move == NO_MOVE) {
+            return NULL_MOVE;
+        }
+        return MoveFactory.createMove(board, getFrom(move), getTo(move));
+    }
+
+    public static String toString(final int move) {
+        if (move == NO_MOVE) {
+            return "0000";
+        }
+        final String notation = BoardUtils.getPositionAtCoordinate(getFrom(move)) +
+                                BoardUtils.getPositionAtCoordinate(getTo(move));
+        return isPromotion(move) ? notation + getPromotionType(move).toString().toLowerCase() : notation;
+    }
+}
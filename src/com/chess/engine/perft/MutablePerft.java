@@ -0,0 +1,142 @@
+package com.chess.engine.perft;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.move.Move;
+import com.chess.engine.move.MoveEncoding;
+import com.chess.engine.move.MoveList;
+import com.chess.engine.move.MoveTransition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Perft på MutableBoard. Dragen görs och tas tillbaka på plats, och genereras som int i en
+// MoveList per djup som återanvänds, så att räkningen inte skapar några bräden eller dragobjekt.
+// Ska ge samma siffror som Perft, vilket kontrolleras med Perft -mutable -compare.
+// Ett objekt får bara användas av en tråd åt gången.
+public final class MutablePerft {
+
+    private final boolean bulkCounting;
+    private final PerftCache cache;
+    private MoveList[] moveLists;
+
+    public MutablePerft() {
+        this(true, 0);
+    }
+
+    // Samma inställningar som för Perft
+    public MutablePerft(final boolean bulkCounting, final long hashSizeInBytes) {
+        this.bulkCounting = bulkCounting;
+        this.cache = hashSizeInBytes > 0 ? new PerftCache(hashSizeInBytes) : null;
+        this.moveLists = new MoveList[0];
+    }
+
+    public long perft(final MutableBoard board, final int depth) {
+        ensureMoveLists(depth);
+        return count(board, depth);
+    }
+
+    // Antal löv under varje drag från positionen, med dragen skrivna som "e2e4"
+    public Map<String, Long> divide(final MutableBoard board, final int depth) {
+        ensureMoveLists(depth);
+        final MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+        final Map<String, Long> divide = new LinkedHashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            divide.put(MoveEncoding.toString(moves.get(i)), count(board, depth - 1));
+            board.unmakeMove();
+        }
+        return divide;
+    }
+
+    // Går igenom samma träd i båda brädmodellerna. I varje position ska de ge samma lagliga drag
+    // och samma Zobrist-nyckel, och varje drag ska bli samma dragobjekt igen efter encode och
+    // decode. Kastar IllegalStateException vid första skillnaden, annars antal drag per dragtyp
+    public Map<String, Long> verify(final Board board, final int depth) {
+        ensureMoveLists(depth);
+        final Map<String, Long> movesPerType = new TreeMap<>();
+        verify(board, new MutableBoard(board), depth, movesPerType);
+        return movesPerType;
+    }
+
+    private void verify(final Board board,
+                        final MutableBoard mutableBoard,
+                        final int depth,
+                        final Map<String, Long> movesPerType) {
+        if (board.getZobristHash() != mutableBoard.getZobristHash()) {
+            throw new IllegalStateException("Zobrist keys differ in\n" + board);
+        }
+        if (depth == 0) {
+            return;
+        }
+        final MoveList moves = this.moveLists[depth];
+        moves.clear();
+        mutableBoard.generateLegalMoves(moves);
+        int legalMoves = 0;
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (!transition.getMoveStatus().isDone()) {
+                continue;
+            }
+            legalMoves++;
+            final int encodedMove = MoveEncoding.encode(move);
+            final Move decodedMove = MoveEncoding.decode(board, encodedMove);
+            if (decodedMove.getClass() != move.getClass() || !decodedMove.equals(move)) {
+                throw new IllegalStateException(move.getClass().getSimpleName() + " " + MoveEncoding.toString(encodedMove) +
+                                                " decodes to " + decodedMove.getClass().getSimpleName() + " in\n" + board);
+            }
+            if (!moves.contains(encodedMove)) {
+                throw new IllegalStateException("MutableBoard does not generate " + MoveEncoding.toString(encodedMove) +
+                                                " in\n" + board);
+            }
+            movesPerType.merge(move.getClass().getSimpleName(), 1L, Long::sum);
+            mutableBoard.makeMove(encodedMove);
+            verify(transition.getTransitionBoard(), mutableBoard, depth - 1, movesPerType);
+            mutableBoard.unmakeMove();
+        }
+        if (legalMoves != moves.size()) {
+            throw new IllegalStateException("Board has " + legalMoves + " legal moves and MutableBoard " + moves.size() +
+                                            " " + moves + " in\n" + board);
+        }
+    }
+
+    private long count(final MutableBoard board, final int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (this.cache != null && !(this.bulkCounting && depth == 1)) {
+            final long cachedNodes = this.cache.get(board.getZobristHash(), depth);
+            if (cachedNodes != PerftCache.NO_ENTRY) {
+                return cachedNodes;
+            }
+        }
+        final MoveList moves = this.moveLists[depth];
+        moves.clear();
+        board.generateLegalMoves(moves);
+        if (this.bulkCounting && depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += count(board, depth - 1);
+            board.unmakeMove();
+        }
+        if (this.cache != null) {
+            this.cache.put(board.getZobristHash(), depth, nodes);
+        }
+        return nodes;
+    }
+
+    private void ensureMoveLists(final int depth) {
+        if (this.moveLists.length <= depth) {
+            final MoveList[] moveLists = new MoveList[depth + 1];
+            for (int i = 0; i < moveLists.length; i++) {
+                moveLists[i] = i < this.moveLists.length ? this.moveLists[i] : new MoveList();
+            }
+            this.moveLists = moveLists;
+        }
+    }
+}
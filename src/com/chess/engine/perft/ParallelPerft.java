@@ -0,0 +1,121 @@
+package com.chess.engine.perft;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.move.Move;
+import com.chess.engine.move.MoveEncoding;
+import com.chess.engine.move.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+// Perft fördelad på flera trådar med en ForkJoinPool. Brädet är immutable, så varje delträd kan
+// räknas från sitt eget bräde utan synkronisering. Delresultaten summeras i dragordning, så
+// summan blir alltid densamma som för en seriell körning.
+public final class ParallelPerft {
+
+    // Delträd med så här få drag kvar räknas seriellt, uppdelningen skulle kosta mer än den ger
+    private static final int SEQUENTIAL_DEPTH = 2;
+    // Ger roten för få drag per tråd delas även nästa nivå upp
+    private static final int MIN_TASKS_PER_THREAD = 4;
+
+    private final Perft perft;
+    private final ForkJoinPool pool;
+    private final Map<String, LongAdder> nodesPerThread;
+
+    public ParallelPerft(final Perft perft, final int parallelism) {
+        this.perft = perft;
+        this.pool = new ForkJoinPool(parallelism);
+        this.nodesPerThread = new ConcurrentHashMap<>();
+    }
+
+    public int getParallelism() {
+        return this.pool.getParallelism();
+    }
+
+    public long perft(final Board board, final int depth) {
+        this.nodesPerThread.clear();
+        return this.pool.invoke(new PerftTask(board, depth, calculateSplitLevels(board)));
+    }
+
+    public Map<String, Long> divide(final Board board, final int depth) {
+        this.nodesPerThread.clear();
+        final int splitLevels = calculateSplitLevels(board) - 1;
+        final Map<String, PerftTask> tasks = new LinkedHashMap<>();
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                tasks.put(MoveEncoding.toString(MoveEncoding.encode(move)),
+                          new PerftTask(transition.getTransitionBoard(), depth - 1, splitLevels));
+            }
+        }
+        for (final PerftTask task : tasks.values()) {
+            this.pool.execute(task);
+        }
+        final Map<String, Long> divide = new LinkedHashMap<>();
+        for (final Map.Entry<String, PerftTask> entry : tasks.entrySet()) {
+            divide.put(entry.getKey(), entry.getValue().join());
+        }
+        return divide;
+    }
+
+    // Antal löv varje tråd räknat under senaste körningen
+    public Map<String, Long> getNodesPerThread() {
+        final Map<String, Long> nodes = new LinkedHashMap<>();
+        for (final Map.Entry<String, LongAdder> entry : this.nodesPerThread.entrySet()) {
+            nodes.put(entry.getKey(), entry.getValue().sum());
+        }
+        return nodes;
+    }
+
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    private int calculateSplitLevels(final Board board) {
+        final int rootMoves = board.currentPlayer().getLegalMoves().size();
+        return rootMoves >= this.pool.getParallelism() * MIN_TASKS_PER_THREAD ? 1 : 2;
+    }
+
+    private final class PerftTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int depth;
+        private final int splitLevels;
+
+        PerftTask(final Board board, final int depth, final int splitLevels) {
+            this.board = board;
+            this.depth = depth;
+            this.splitLevels = splitLevels;
+        }
+
+        @Override
+        protected Long compute() {
+            if (this.splitLevels <= 0 || this.depth <= SEQUENTIAL_DEPTH) {
+                final long nodes = perft.perft(this.board, this.depth);
+                nodesPerThread.computeIfAbsent(Thread.currentThread().getName(), name -> new LongAdder()).add(nodes);
+                return nodes;
+            }
+            final List<PerftTask> subtasks = new ArrayList<>();
+            for (final Move move : this.board.currentPlayer().getLegalMoves()) {
+                final MoveTransition transition = this.board.currentPlayer().makeMove(move);
+                if (transition.getMoveStatus().isDone()) {
+                    subtasks.add(new PerftTask(transition.getTransitionBoard(), this.depth - 1, this.splitLevels - 1));
+                }
+            }
+            invokeAll(subtasks);
+            long nodes = 0;
+            for (final PerftTask subtask : subtasks) {
+                nodes += subtask.join();
+            }
+            return nodes;
+        }
+    }
+}
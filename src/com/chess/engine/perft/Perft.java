@@ -0,0 +1,239 @@
+package com.chess.engine.perft;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.move.Move;
+import com.chess.engine.move.MoveEncoding;
+import com.chess.engine.move.MoveTransition;
+import com.chess.pgn.FenUtilities;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Räknar alla positioner till ett visst djup genom brädmodellen (Piece.calculateLegalMoves,
+// rockaderna och Player.makeMove). Siffrorna jämförs med kända värden för att hitta fel i
+// draggenereringen, och noder per sekund används för att följa hur snabb den är.
+public final class Perft {
+
+    private static final String STANDARD_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final long BYTES_PER_MEGABYTE = 1L << 20;
+    private static final String USAGE =
+            "Usage: Perft <depth> [-fen <FEN>] [-divide] [-nobulk] [-hash <MB>] [-threads <n>] [-mutable] [-compare] [-verify]";
+
+    private final boolean bulkCounting;
+    private final PerftCache cache;
+
+    public Perft() {
+        this(true, 0);
+    }
+
+    // Med bulkCounting räknas sista draget som antalet lagliga drag, utan att dragen görs.
+    // En hashSizeInBytes på 0 stänger av tabellen med antal för redan räknade positioner
+    public Perft(final boolean bulkCounting, final long hashSizeInBytes) {
+        this.bulkCounting = bulkCounting;
+        this.cache = hashSizeInBytes > 0 ? new PerftCache(hashSizeInBytes) : null;
+    }
+
+    public long perft(final Board board, final int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (this.bulkCounting && depth == 1) {
+            return board.currentPlayer().getLegalMoves().size();
+        }
+        if (this.cache != null) {
+            final long cachedNodes = this.cache.get(board.getZobristHash(), depth);
+            if (cachedNodes != PerftCache.NO_ENTRY) {
+                return cachedNodes;
+            }
+        }
+        long nodes = 0;
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                nodes += perft(transition.getTransitionBoard(), depth - 1);
+            }
+        }
+        if (this.cache != null) {
+            this.cache.put(board.getZobristHash(), depth, nodes);
+        }
+        return nodes;
+    }
+
+    // Antal löv under varje drag från positionen, med dragen skrivna som "e2e4"
+    public Map<String, Long> divide(final Board board, final int depth) {
+        final Map<String, Long> divide = new LinkedHashMap<>();
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                divide.put(MoveEncoding.toString(MoveEncoding.encode(move)),
+                           perft(transition.getTransitionBoard(), depth - 1));
+            }
+        }
+        return divide;
+    }
+
+    // Perft <djup> [-fen <FEN>] [-divide] [-nobulk] [-hash <MB>] [-threads <n>] [-mutable] [-compare] [-verify]
+    // Med -compare jämförs -threads mot en seriell körning och -mutable mot brädmodellen.
+    // -verify kontrollerar drag för drag att brädmodellerna och MoveEncoding stämmer överens
+    public static void main(final String[] args) {
+        if (args.length == 0) {
+            System.out.println(USAGE);
+            return;
+        }
+        final int depth = Integer.parseInt(args[0]);
+        String fen = STANDARD_FEN;
+        boolean divide = false;
+        boolean bulkCounting = true;
+        boolean compare = false;
+        boolean mutable = false;
+        boolean verify = false;
+        long hashSizeInBytes = 0;
+        int threads = 1;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "-fen":
+                    fen = args[++i];
+                    break;
+                case "-divide":
+                    divide = true;
+                    break;
+                case "-nobulk":
+                    bulkCounting = false;
+                    break;
+                case "-hash":
+                    hashSizeInBytes = Long.parseLong(args[++i]) * BYTES_PER_MEGABYTE;
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-compare":
+                    compare = true;
+                    break;
+                case "-mutable":
+                    mutable = true;
+                    break;
+                case "-verify":
+                    verify = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i] + "\n" + USAGE);
+            }
+        }
+
+        final Board board = FenUtilities.createGameFromFEN(fen);
+        // Dragtabellerna initieras innan tidtagningen börjar
+        board.currentPlayer().getLegalMoves();
+        if (verify) {
+            long verifiedMoves = 0;
+            for (final Map.Entry<String, Long> entry : new MutablePerft().verify(board, depth).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                verifiedMoves += entry.getValue();
+            }
+            System.out.println("Verified " + verifiedMoves + " moves");
+            return;
+        }
+        if (mutable) {
+            if (threads > 1) {
+                throw new IllegalArgumentException("-mutable runs on one thread\n" + USAGE);
+            }
+            runMutable(board, depth, divide, bulkCounting, hashSizeInBytes, compare);
+            return;
+        }
+        if (threads <= 1) {
+            final long startTime = System.nanoTime();
+            final long nodes = divide && depth > 0 ?
+                    printDivide(new Perft(bulkCounting, hashSizeInBytes).divide(board, depth)) :
+                    new Perft(bulkCounting, hashSizeInBytes).perft(board, depth);
+            printResult(nodes, System.nanoTime() - startTime);
+            return;
+        }
+
+        long serialNanos = 0;
+        long serialNodes = 0;
+        if (compare) {
+            // Seriell referens med en egen tabell, så att den parallella körningen inte får en varm tabell
+            final long startTime = System.nanoTime();
+            serialNodes = new Perft(bulkCounting, hashSizeInBytes).perft(board, depth);
+            serialNanos = System.nanoTime() - startTime;
+            System.out.println("Serial");
+            printResult(serialNodes, serialNanos);
+            System.out.println();
+        }
+
+        final ParallelPerft parallelPerft = new ParallelPerft(new Perft(bulkCounting, hashSizeInBytes), threads);
+        try {
+            final long startTime = System.nanoTime();
+            final long nodes = divide && depth > 0 ?
+                    printDivide(parallelPerft.divide(board, depth)) :
+                    parallelPerft.perft(board, depth);
+            final long parallelNanos = System.nanoTime() - startTime;
+            System.out.println("Parallel, " + threads + " threads");
+            printResult(nodes, parallelNanos);
+            for (final Map.Entry<String, Long> entry : parallelPerft.getNodesPerThread().entrySet()) {
+                System.out.println("  " + entry.getKey() + ": " + entry.getValue() + " nodes, " +
+                                   nodesPerSecond(entry.getValue(), parallelNanos) + " nps");
+            }
+            if (compare) {
+                System.out.println("Matches serial: " + (nodes == serialNodes));
+                System.out.println("Speedup: " + String.format("%.2f", (double) serialNanos / parallelNanos));
+                System.out.println("Efficiency: " +
+                                   String.format("%.0f%%", 100.0 * serialNanos / ((double) parallelNanos * threads)));
+            }
+        } finally {
+            parallelPerft.shutdown();
+        }
+    }
+
+    private static void runMutable(final Board board,
+                                   final int depth,
+                                   final boolean divide,
+                                   final boolean bulkCounting,
+                                   final long hashSizeInBytes,
+                                   final boolean compare) {
+        long boardNanos = 0;
+        long boardNodes = 0;
+        if (compare) {
+            final long startTime = System.nanoTime();
+            boardNodes = new Perft(bulkCounting, hashSizeInBytes).perft(board, depth);
+            boardNanos = System.nanoTime() - startTime;
+            System.out.println("Board");
+            printResult(boardNodes, boardNanos);
+            System.out.println();
+        }
+
+        final MutableBoard mutableBoard = new MutableBoard(board);
+        final MutablePerft mutablePerft = new MutablePerft(bulkCounting, hashSizeInBytes);
+        final long startTime = System.nanoTime();
+        final long nodes = divide && depth > 0 ?
+                printDivide(mutablePerft.divide(mutableBoard, depth)) :
+                mutablePerft.perft(mutableBoard, depth);
+        final long mutableNanos = System.nanoTime() - startTime;
+        System.out.println("Mutable");
+        printResult(nodes, mutableNanos);
+        if (compare) {
+            System.out.println("Matches board: " + (nodes == boardNodes));
+            System.out.println("Speedup: " + String.format("%.2f", (double) boardNanos / Math.max(1, mutableNanos)));
+        }
+    }
+
+    private static long printDivide(final Map<String, Long> divide) {
+        long nodes = 0;
+        for (final Map.Entry<String, Long> entry : divide.entrySet()) {
+            System.out.println(entry.getKey() + ": " + entry.getValue());
+            nodes += entry.getValue();
+        }
+        System.out.println();
+        return nodes;
+    }
+
+    private static void printResult(final long nodes, final long elapsedNanos) {
+        System.out.println("Nodes: " + nodes);
+        System.out.println("Time: " + elapsedNanos / 1000000 + " ms");
+        System.out.println("NPS: " + nodesPerSecond(nodes, elapsedNanos));
+    }
+
+    private static long nodesPerSecond(final long nodes, final long elapsedNanos) {
+        return (long) (nodes * 1e9 / Math.max(1, elapsedNanos));
+    }
+}
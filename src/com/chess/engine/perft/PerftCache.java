@@ -0,0 +1,42 @@
+package com.chess.engine.perft;
+
+// Sparar antalet löv under en position och ett djup, så att transpositioner bara räknas en gång.
+// Nyckeln lagras XOR:ad med antalet, som i TranspositionTable, så att tabellen kan delas mellan
+// trådar utan lås. En plats som skrivits samtidigt av två trådar blir bara en miss.
+final class PerftCache {
+
+    static final long NO_ENTRY = -1L;
+
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+
+    private final long[] entries;
+    private final int indexMask;
+
+    PerftCache(final long sizeInBytes) {
+        final long entryCount = Long.highestOneBit(Math.max(1, sizeInBytes / (LONGS_PER_ENTRY * Long.BYTES)));
+        if (entryCount * LONGS_PER_ENTRY > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Perft hash too large: " + sizeInBytes + " bytes");
+        }
+        this.entries = new long[(int) entryCount * LONGS_PER_ENTRY];
+        this.indexMask = (int) entryCount - 1;
+    }
+
+    long get(final long zobristHash, final int depth) {
+        final long key = zobristHash ^ (DEPTH_KEY * depth);
+        final int index = index(key);
+        final long nodes = this.entries[index + 1];
+        return nodes != 0 && (this.entries[index] ^ nodes) == key ? nodes : NO_ENTRY;
+    }
+
+    void put(final long zobristHash, final int depth, final long nodes) {
+        final long key = zobristHash ^ (DEPTH_KEY * depth);
+        final int index = index(key);
+        this.entries[index] = key ^ nodes;
+        this.entries[index + 1] = nodes;
+    }
+
+    private int index(final long key) {
+        return ((int) key & this.indexMask) * LONGS_PER_ENTRY;
+    }
+}
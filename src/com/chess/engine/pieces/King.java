@@ -4,20 +4,11 @@ import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.move.Move;
-import com.chess.engine.board.Tile;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-
-import static com.chess.engine.move.Move.*;
 
 public class King extends Piece {
 
-    private final static int[] CANDIDATE_MOVE_VECTOR_COORDINATES = {-9, -8, -7, -1, 1, 7, 8, 9};
-
     public King (final int piecePosition,
                  final Alliance pieceAlliance,
                  final boolean isFirstMove) {
@@ -25,47 +16,12 @@ public class King extends Piece {
     }
 
     @Override
-    public Collection<Move> calculateLegalMoves(Board board) {
-
-        final List<Move> legalMoves = new ArrayList<>();
-
-        for (final int currentCandidateOffset : CANDIDATE_MOVE_VECTOR_COORDINATES) {
-            final int candidateDestinationCoordinate = this.piecePosition + currentCandidateOffset;
-
-            if (isFirstColumnExclusion(this.piecePosition, currentCandidateOffset) ||
-                isEigthColumnExclusion(this.piecePosition, currentCandidateOffset)) {
-                continue;
-            }
-
-            if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-                if (!candidateDestinationTile.isTileOccupied()) {
-                    legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                } else {
-                    final Piece pieceAtDestionation = candidateDestinationTile.getPiece();
-                    final Alliance pieceAtDestinationAlliance = pieceAtDestionation.getPieceAlliance();
-
-                    if (this.pieceAlliance != pieceAtDestinationAlliance) {
-                        legalMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestionation));
-                    }
-                }
-            }
-        }
-        return ImmutableList.copyOf(Iterables.concat(legalMoves));
+    public Collection<Move> calculateLegalMoves(final Board board) {
+        return calculateMovesFromAttacks(board, BoardUtils.KING_ATTACKS[this.piecePosition]);
     }
 
     @Override
     public Piece movePiece(Move move) {
-        return new King(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false);
-    }
-
-    private static boolean isFirstColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.FIRST_COLUMN[currentPosition] && (candidateOffset == -9 || candidateOffset == -1 ||
-                candidateOffset == 7);
-    }
-
-    private static boolean isEigthColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.EIGTH_COLUMN[currentPosition] && (candidateOffset == -7 || candidateOffset == 1 ||
-                candidateOffset == 9);
+        return PieceUtils.getMovedPiece(this, move.getDestinationCoordinate());
     }
 }
@@ -1,8 +1,8 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
 import com.chess.engine.move.Move;
 import com.google.common.collect.ImmutableList;
 
@@ -14,8 +14,6 @@ import static com.chess.engine.move.Move.*;
 
 public class Pawn extends Piece {
 
-    private final static int[] CANDIDATE_MOVE_VECTOR_COORDINATES = {7, 8, 9, 16};
-
     public Pawn (final int piecePosition,
                  final Alliance pieceAlliance,
                  final boolean isFirstMove) {
@@ -25,80 +23,55 @@ public class Pawn extends Piece {
 
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
-
+        final BitBoard bitBoard = board.getBitBoard();
         final List<Move> legalMoves = new ArrayList<>();
-        for(final int currentCandidateOffset : CANDIDATE_MOVE_VECTOR_COORDINATES) {
-            final int candidateDestinationCoordinate = this.piecePosition + (this.pieceAlliance.getDirection() * currentCandidateOffset);
-            if (!BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                continue;
+
+        //FRAMÅT
+        final long push = this.pieceAlliance.getPawnPushes(this.piecePosition) & ~bitBoard.getOccupancy();
+        if (push != 0) {
+            final int candidateDestinationCoordinate = Long.numberOfTrailingZeros(push);
+            if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
+                legalMoves.add(new PawnPromotion(new PawnMove(board, this, candidateDestinationCoordinate)));
+            } else {
+                legalMoves.add(new PawnMove(board, this, candidateDestinationCoordinate));
             }
-            //FRAMÅT
-            if (currentCandidateOffset == 8 && !board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                    legalMoves.add(new PawnPromotion(new PawnMove(board, this, candidateDestinationCoordinate)));
-                } else {
-                    legalMoves.add(new PawnMove(board, this, candidateDestinationCoordinate));
-                }
 
             //PAWN JUMP
-            } else if (currentCandidateOffset == 16 && this.isFirstMove()) {
-                final int behindCandidateDestionationCoordinate = this.piecePosition + (this.pieceAlliance.getDirection() * 8);
-                if (!board.getTile(behindCandidateDestionationCoordinate).isTileOccupied() &&
-                    !board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                    legalMoves.add(new PawnJump(board, this, candidateDestinationCoordinate));
-                }
-
-            //HÖGER
-            } else if (currentCandidateOffset == 7 &&
-                    !((BoardUtils.EIGTH_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite()) ||
-                    (BoardUtils.FIRST_COLUMN[this.piecePosition] && this.pieceAlliance.isBlack()) )) {
-                if (board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                    final Piece pieceAtDestionation = board.getTile(candidateDestinationCoordinate).getPiece();
-                    if (this.pieceAlliance != pieceAtDestionation.getPieceAlliance()) {
-                        if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                            legalMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestionation)));
-                        } else {
-                            legalMoves.add(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestionation));
-                        }
-                    }
+            final long jump = this.pieceAlliance.getPawnJumps(this.piecePosition) & ~bitBoard.getOccupancy();
+            if (jump != 0 && this.isFirstMove()) {
+                legalMoves.add(new PawnJump(board, this, Long.numberOfTrailingZeros(jump)));
+            }
+        }
 
-                } else if (board.getEnPassantPawn() != null) {
-                    if (board.getEnPassantPawn().getPiecePosition() == (this.piecePosition + (this.pieceAlliance.getOppositeDirection()))) {
-                        final Piece pieceOnCandidate = board.getEnPassantPawn();
-                        legalMoves.add(new PawnEnPassantAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
-                    }
-                }
+        //SLAG
+        final long attacks = this.pieceAlliance.getPawnAttacks(this.piecePosition);
+        for (long captures = attacks & bitBoard.getOccupancy() & ~bitBoard.getOccupancy(this.pieceAlliance);
+             captures != 0; captures &= captures - 1) {
+            final int candidateDestinationCoordinate = Long.numberOfTrailingZeros(captures);
+            final Piece pieceAtDestionation = board.getTile(candidateDestinationCoordinate).getPiece();
+            if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
+                legalMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestionation)));
+            } else {
+                legalMoves.add(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestionation));
+            }
+        }
 
-            //VÄNSTER
-            } else if (currentCandidateOffset == 9 &&
-                    !((BoardUtils.EIGTH_COLUMN[this.piecePosition] && this.pieceAlliance.isBlack()) ||
-                    (BoardUtils.FIRST_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite()) )) {
-                    // More to do here
-                if (board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                    final Piece pieceAtDestionation = board.getTile(candidateDestinationCoordinate).getPiece();
-                    if (this.pieceAlliance != pieceAtDestionation.getPieceAlliance()) {
-                        if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                            legalMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestionation)));
-                        } else {
-                            legalMoves.add(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestionation));
-                        }
-                    }
-                } else if (board.getEnPassantPawn() != null) {
-                    if (board.getEnPassantPawn().getPiecePosition() == (this.piecePosition - (this.pieceAlliance.getOppositeDirection()))) {
-                        final Piece pieceAtDestionation = board.getEnPassantPawn();
-                        legalMoves.add(new PawnEnPassantAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestionation));
-                    }
-                }
+        //EN PASSANT
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        if (enPassantPawn != null && enPassantPawn.getPieceAlliance() != this.pieceAlliance) {
+            final int candidateDestinationCoordinate = enPassantPawn.getPiecePosition() + (this.pieceAlliance.getDirection() * 8);
+            if ((attacks & BitBoard.squareMask(candidateDestinationCoordinate)) != 0) {
+                legalMoves.add(new PawnEnPassantAttackMove(board, this, candidateDestinationCoordinate, enPassantPawn));
             }
         }
         return ImmutableList.copyOf(legalMoves);
     }
     @Override
     public Piece movePiece(Move move) {
-        return new Pawn(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false);
+        return PieceUtils.getMovedPiece(this, move.getDestinationCoordinate());
     }
     //TODO låt användare välja piecetype
     public Piece getPromotionPiece() {
-        return new Queen(this.piecePosition, this.pieceAlliance, false);
+        return PieceUtils.getPiece(PieceType.QUEEN, this.pieceAlliance, this.piecePosition, false);
     }
 }
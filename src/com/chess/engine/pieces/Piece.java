@@ -1,11 +1,15 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
 import com.chess.engine.move.Move;
+import com.google.common.collect.ImmutableList;
 
 import java.util.Collection;
 
+import static com.chess.engine.move.Move.*;
+
 public abstract class Piece {
 
     protected final int piecePosition;
@@ -21,8 +25,8 @@ public abstract class Piece {
         this.piecePosition = piecePosition;
         this.pieceAlliance = pieceAlliance;
         this.pieceType = pieceType;
-        this.cachedHashCode = computeHashCode();
         this.isFirstMove = isFirstMove;
+        this.cachedHashCode = computeHashCode();
     }
 
     private int computeHashCode() {
@@ -38,7 +42,7 @@ public abstract class Piece {
         if (this == other) {
             return true;
         }
-        else if (other  instanceof Piece) {
+        else if (!(other instanceof Piece)) {
             return false;
         }
         final Piece otherPiece = (Piece) other;
@@ -75,6 +79,23 @@ public abstract class Piece {
 
     public abstract Collection<Move> calculateLegalMoves(final Board board);
 
+    // Gör om en attackmängd till drag, egna pjäser är redan bortfiltrerade
+    protected Collection<Move> calculateMovesFromAttacks(final Board board, final long attacks) {
+        final BitBoard bitBoard = board.getBitBoard();
+        final ImmutableList.Builder<Move> legalMoves = ImmutableList.builder();
+        for (long destinations = attacks & ~bitBoard.getOccupancy(this.pieceAlliance);
+             destinations != 0; destinations &= destinations - 1) {
+            final int candidateDestinationCoordinate = Long.numberOfTrailingZeros(destinations);
+            if (!bitBoard.isOccupied(candidateDestinationCoordinate)) {
+                legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
+            } else {
+                final Piece pieceAtDestination = board.getTile(candidateDestinationCoordinate).getPiece();
+                legalMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
+            }
+        }
+        return legalMoves.build();
+    }
+
     @Override
     public String toString() {
         return pieceType.toString();
@@ -94,11 +115,12 @@ public abstract class Piece {
         QUEEN("Q", 900),
         KING("K", 10000);
 
-        private String pieceName;
-        private int pieceValue;
+        private final String pieceName;
+        private final int pieceValue;
 
         PieceType(final String pieceName, final int pieceValue) {
             this.pieceName = pieceName;
+            this.pieceValue = pieceValue;
         }
 
         @Override
@@ -106,7 +128,7 @@ public abstract class Piece {
             return this.pieceName;
         }
 
-        private int getPieceValue() {
+        public int getPieceValue() {
             return this.pieceValue;
         }
     }
@@ -0,0 +1,82 @@
+package com.chess.engine.pieces;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece.PieceType;
+
+// Alla pjäser som kan förekomma skapas en gång, en per typ, färg, ruta och om pjäsen har flyttats.
+// Pjäserna är immutable, så att flytta en pjäs blir en uppslagning i stället för ett nytt objekt,
+// på samma sätt som Tile sparar sina tomma rutor.
+public final class PieceUtils {
+
+    public static final int NUM_PIECES = PieceType.values().length * Alliance.values().length * 2 * BoardUtils.NUM_TILES;
+
+    private static final Piece[] ALL_POSSIBLE_PIECES = createAllPossiblePieces();
+
+    private PieceUtils() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static Piece getPiece(final PieceType pieceType,
+                                 final Alliance alliance,
+                                 final int piecePosition,
+                                 final boolean isFirstMove) {
+        return ALL_POSSIBLE_PIECES[index(pieceType, alliance, piecePosition, isFirstMove)];
+    }
+
+    // Pjäsen efter ett drag, som alltid har flyttats
+    public static Piece getMovedPiece(final Piece piece, final int destinationCoordinate) {
+        return getPiece(piece.getPieceType(), piece.getPieceAlliance(), destinationCoordinate, false);
+    }
+
+    // Index för pjäsen i tabellen, samma för alla pjäser med samma typ, färg, ruta och flaggan
+    public static int index(final Piece piece) {
+        return index(piece.getPieceType(), piece.getPieceAlliance(), piece.getPiecePosition(), piece.isFirstMove());
+    }
+
+    // Pjäser som skapats med konstruktorerna i stället för här räknas inte
+    public static boolean isCanonical(final Piece piece) {
+        return ALL_POSSIBLE_PIECES[index(piece)] == piece;
+    }
+
+    private static int index(final PieceType pieceType,
+                             final Alliance alliance,
+                             final int piecePosition,
+                             final boolean isFirstMove) {
+        return ((pieceType.ordinal() * Alliance.values().length + alliance.ordinal()) * 2 + (isFirstMove ? 1 : 0)) *
+               BoardUtils.NUM_TILES + piecePosition;
+    }
+
+    private static Piece[] createAllPossiblePieces() {
+        final Piece[] pieces = new Piece[NUM_PIECES];
+        for (final PieceType pieceType : PieceType.values()) {
+            for (final Alliance alliance : Alliance.values()) {
+                for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+                    pieces[index(pieceType, alliance, square, true)] = createPiece(pieceType, alliance, square, true);
+                    pieces[index(pieceType, alliance, square, false)] = createPiece(pieceType, alliance, square, false);
+                }
+            }
+        }
+        return pieces;
+    }
+
+    private static Piece createPiece(final PieceType pieceType,
+                                     final Alliance alliance,
+                                     final int square,
+                                     final boolean isFirstMove) {
+        switch (pieceType) {
+            case PAWN:
+                return new Pawn(square, alliance, isFirstMove);
+            case KNIGHT:
+                return new Knight(square, alliance, isFirstMove);
+            case BISHOP:
+                return new Bishop(square, alliance, isFirstMove);
+            case ROOK:
+                return new Rook(square, alliance, isFirstMove);
+            case QUEEN:
+                return new Queen(square, alliance, isFirstMove);
+            default:
+                return new King(square, alliance, isFirstMove);
+        }
+    }
+}
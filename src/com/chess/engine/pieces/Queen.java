@@ -2,21 +2,13 @@ package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MagicBitBoards;
 import com.chess.engine.move.Move;
-import com.chess.engine.board.Tile;
-import com.google.common.collect.ImmutableList;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-
-import static com.chess.engine.move.Move.*;
 
 public class Queen extends Piece {
 
-    private static final int[] CANDIDATE_MOVE_VECTOR_COORDINATES = {-9, -8, -7, -1, 1, 7, 8, 9};
-
     public Queen (final int piecePosition,
                   final Alliance pieceAlliance,
                   final boolean isFirstMove) {
@@ -25,52 +17,13 @@ public class Queen extends Piece {
 
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>();
-        // Vi letar efter giltiga drag i samtliga 4 tillåtna riktningar
-        for(final int candidateCoordinateOffset : CANDIDATE_MOVE_VECTOR_COORDINATES) {
-            int candidateDestinationCoordinate = this.piecePosition;
-            do {
-                if(isFirstColumnExclusion(candidateDestinationCoordinate, candidateCoordinateOffset) ||
-                        isEightColumnExclusion(candidateDestinationCoordinate, candidateCoordinateOffset)) {
-                    break;
-                }
-                candidateDestinationCoordinate += candidateCoordinateOffset;
-                // Om platsen efter vårt offset fortfarande är på brädet
-                if(BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                    final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-                    // Om platsen ej är ockuperad är det ett giltigt drag, och loopen kan fortsätta
-                    if (!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                        // Om platsen är ockuperad kommer vi kontrollera alliansen av pjäsen, för att sedan
-                        // sluta iterera för giltiga drag i denna riktning
-                    } else {
-                        final Piece pieceAtDestionation = candidateDestinationTile.getPiece();
-                        final Alliance pieceAtDestinationAlliance = pieceAtDestionation.getPieceAlliance();
-
-                        if (this.pieceAlliance != pieceAtDestinationAlliance) {
-                            legalMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestionation));
-                        }
-                        break;
-                    }
-                }
-            } while (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate));
-        }
-        return ImmutableList.copyOf(legalMoves);
+        // Hela attackmängden hämtas ur de magiska tabellerna med en uppslagning
+        return calculateMovesFromAttacks(board,
+                MagicBitBoards.queenAttacks(this.piecePosition, board.getBitBoard().getOccupancy()));
     }
 
     @Override
     public Piece movePiece(Move move) {
-        return new Queen(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false);
-    }
-
-
-    private static boolean isFirstColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.FIRST_COLUMN[currentPosition] && (candidateOffset == -9 || candidateOffset == 7
-                || candidateOffset == -1);
-    }
-
-    private static boolean isEightColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.EIGTH_COLUMN[currentPosition] && (candidateOffset == -7 || candidateOffset == 9
-                || candidateOffset == 1);
+        return PieceUtils.getMovedPiece(this, move.getDestinationCoordinate());
     }
 }
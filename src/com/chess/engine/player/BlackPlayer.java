@@ -1,6 +1,7 @@
 package com.chess.engine.player;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.AttackMap;
 import com.chess.engine.board.Board;
 import com.chess.engine.move.Move;
 import com.chess.engine.move.Move.KingSideCastleMove;
@@ -8,6 +9,7 @@ import com.chess.engine.move.Move.QueenSideCastleMove;
 import com.chess.engine.board.Tile;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.pieces.Rook;
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 
 import java.util.ArrayList;
@@ -16,9 +18,8 @@ import java.util.List;
 
 public class BlackPlayer extends Player {
     public BlackPlayer(final Board board,
-                       final Collection<Move> legalMoves,
-                       final Collection<Move> opponentLegalMoves) {
-        super(board, legalMoves, opponentLegalMoves);
+                       final Supplier<Collection<Move>> legalMoves) {
+        super(board, legalMoves);
     }
 
     @Override
@@ -37,16 +38,16 @@ public class BlackPlayer extends Player {
     }
 
     @Override
-    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals,
-                                                    final Collection<Move> opponentsLegals) {
+    protected Collection<Move> calculateKingCastles() {
         final List<Move> kingCastles = new ArrayList<>();
+        final AttackMap opponentAttacks = this.board.getAttackMap(Alliance.WHITE);
 
         if (this.playerKing.isFirstMove() && !this.isInCheck()) {
             // black king-side castle move
             if (!this.board.getTile(5).isTileOccupied() &&
                 !this.board.getTile(6).isTileOccupied()) {
-                if (Player.calculateAttacksOnTile(5, opponentsLegals).isEmpty() &&
-                    Player.calculateAttacksOnTile(6, opponentsLegals).isEmpty()) {
+                if (!opponentAttacks.isAttacked(5) &&
+                    !opponentAttacks.isAttacked(6)) {
                     final Tile rookTile = this.board.getTile(7);
                     if (rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
                         kingCastles.add(new KingSideCastleMove(this.board, this.playerKing, 6, (Rook) rookTile.getPiece(), rookTile.getTileCoordinate(), 5));
@@ -57,8 +58,8 @@ public class BlackPlayer extends Player {
             if (!this.board.getTile(1).isTileOccupied() &&
                 !this.board.getTile(2).isTileOccupied() &&
                 !this.board.getTile(3).isTileOccupied()) {
-                if (Player.calculateAttacksOnTile(2, opponentsLegals).isEmpty() &&
-                    Player.calculateAttacksOnTile(3, opponentsLegals).isEmpty()) {
+                if (!opponentAttacks.isAttacked(2) &&
+                    !opponentAttacks.isAttacked(3)) {
                     final Tile rookTile = this.board.getTile(0);
                     if (rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
                         kingCastles.add(new QueenSideCastleMove(this.board, this.playerKing, 2, (Rook) rookTile.getPiece(), rookTile.getTileCoordinate(), 3));
@@ -0,0 +1,127 @@
+package com.chess.engine.player;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MagicBitBoards;
+import com.chess.engine.move.Move;
+import com.chess.engine.move.Move.PawnEnPassantAttackMove;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collection;
+
+// Släpper bara igenom lagliga drag, utan att prova dem på ett nytt bräde. Bundna pjäser,
+// schackmasken och de rutor kungen inte får gå till beräknas en gång per position.
+final class LegalMoveGenerator {
+
+    private static final long ALL_SQUARES = -1L;
+
+    private final BitBoard bitBoard;
+    private final Alliance alliance;
+    private final Alliance opponent;
+    private final int kingSquare;
+    private final long checkers;
+    private final long checkMask;
+    private final long kingDangerSquares;
+    private final long pinned;
+    private final long[] pinRays;
+
+    LegalMoveGenerator(final Board board, final Alliance alliance) {
+        this.bitBoard = board.getBitBoard();
+        this.alliance = alliance;
+        this.opponent = alliance.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+        this.kingSquare = this.bitBoard.getKingSquare(alliance);
+        this.checkers = this.bitBoard.getAttackers(this.kingSquare, this.opponent);
+        this.checkMask = calculateCheckMask();
+        // Kungen tas bort ur blockeringen, annars skulle den kunna backa längs en schackande linje
+        this.kingDangerSquares = this.bitBoard.getAttackedSquares(this.opponent,
+                this.bitBoard.getOccupancy() & ~BitBoard.squareMask(this.kingSquare));
+        this.pinRays = new long[BoardUtils.NUM_TILES];
+        this.pinned = calculatePins();
+    }
+
+    Collection<Move> calculateLegalMoves(final Iterable<Move> pseudoLegalMoves) {
+        final ImmutableList.Builder<Move> legalMoves = ImmutableList.builder();
+        for (final Move move : pseudoLegalMoves) {
+            if (isLegal(move)) {
+                legalMoves.add(move);
+            }
+        }
+        return legalMoves.build();
+    }
+
+    boolean isLegal(final Move move) {
+        final int from = move.getCurrentCoordinate();
+        final long destination = BitBoard.squareMask(move.getDestinationCoordinate());
+        if (move.isCastlingMove()) {
+            // Kungen får varken stå i, passera eller hamna i schack
+            final long passedSquare = BitBoard.squareMask((from + move.getDestinationCoordinate()) / 2);
+            return this.checkers == 0 && (this.kingDangerSquares & (destination | passedSquare)) == 0;
+        }
+        if (move.getMovedPiece().isKing()) {
+            return (this.kingDangerSquares & destination) == 0;
+        }
+        if (Long.bitCount(this.checkers) > 1) {
+            return false;
+        }
+        if ((this.pinned & BitBoard.squareMask(from)) != 0 && (this.pinRays[from] & destination) == 0) {
+            return false;
+        }
+        if (move instanceof PawnEnPassantAttackMove) {
+            return isLegalEnPassant(from, move.getAttackedPiece().getPiecePosition(), destination);
+        }
+        return (this.checkMask & destination) != 0;
+    }
+
+    // Två bönder försvinner från samma rad, så en vanlig bindning räcker inte för att avgöra draget
+    private boolean isLegalEnPassant(final int from, final int capturedSquare, final long destination) {
+        final long captured = BitBoard.squareMask(capturedSquare);
+        final long occupancy = (this.bitBoard.getOccupancy() & ~BitBoard.squareMask(from) & ~captured) | destination;
+        final long queens = this.bitBoard.getPieces(this.opponent, PieceType.QUEEN);
+        final long straights = this.bitBoard.getPieces(this.opponent, PieceType.ROOK) | queens;
+        final long diagonals = this.bitBoard.getPieces(this.opponent, PieceType.BISHOP) | queens;
+        if ((MagicBitBoards.rookAttacks(this.kingSquare, occupancy) & straights) != 0 ||
+            (MagicBitBoards.bishopAttacks(this.kingSquare, occupancy) & diagonals) != 0) {
+            return false;
+        }
+        final long otherCheckers = this.checkers & ~captured & ~straights & ~diagonals;
+        return otherCheckers == 0;
+    }
+
+    private long calculateCheckMask() {
+        if (this.checkers == 0) {
+            return ALL_SQUARES;
+        }
+        if (Long.bitCount(this.checkers) > 1) {
+            return 0L;
+        }
+        // Schacken kan parereras genom att slå den schackande pjäsen eller ställa sig emellan
+        final int checkerSquare = Long.numberOfTrailingZeros(this.checkers);
+        return this.checkers | MagicBitBoards.squaresBetween(this.kingSquare, checkerSquare);
+    }
+
+    private long calculatePins() {
+        final long ownPieces = this.bitBoard.getOccupancy(this.alliance);
+        final long opponentPieces = this.bitBoard.getOccupancy(this.opponent);
+        final long queens = this.bitBoard.getPieces(this.opponent, PieceType.QUEEN);
+        // Egna pjäser behandlas som genomskinliga, så att linjära pjäser bakom dem hittas
+        final long snipers =
+                (MagicBitBoards.rookAttacks(this.kingSquare, opponentPieces) &
+                        (this.bitBoard.getPieces(this.opponent, PieceType.ROOK) | queens)) |
+                (MagicBitBoards.bishopAttacks(this.kingSquare, opponentPieces) &
+                        (this.bitBoard.getPieces(this.opponent, PieceType.BISHOP) | queens));
+        long pinned = 0L;
+        for (long remaining = snipers; remaining != 0; remaining &= remaining - 1) {
+            final int sniperSquare = Long.numberOfTrailingZeros(remaining);
+            final long between = MagicBitBoards.squaresBetween(this.kingSquare, sniperSquare);
+            final long blockers = between & ownPieces;
+            if (Long.bitCount(blockers) == 1 && (between & opponentPieces) == 0) {
+                pinned |= blockers;
+                this.pinRays[Long.numberOfTrailingZeros(blockers)] = between | BitBoard.squareMask(sniperSquare);
+            }
+        }
+        return pinned;
+    }
+}
@@ -0,0 +1,48 @@
+package com.chess.engine.player;
+
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.move.Move;
+
+import java.util.Collection;
+
+// Dragen indexerade på start- och målruta. Varje startruta har en bitmängd med målrutor, och
+// dragen ligger sorterade efter start- och målruta, så att ett drags plats är antalet drag före
+// startrutan plus antalet lägre målrutor från samma ruta.
+final class MoveIndex {
+
+    private final long[] destinations;
+    private final int[] offsets;
+    private final Move[] moves;
+
+    MoveIndex(final Collection<Move> legalMoves) {
+        this.destinations = new long[BoardUtils.NUM_TILES];
+        this.offsets = new int[BoardUtils.NUM_TILES];
+        this.moves = new Move[legalMoves.size()];
+        for (final Move move : legalMoves) {
+            this.destinations[move.getCurrentCoordinate()] |= BitBoard.squareMask(move.getDestinationCoordinate());
+        }
+        int offset = 0;
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            this.offsets[square] = offset;
+            offset += Long.bitCount(this.destinations[square]);
+        }
+        for (final Move move : legalMoves) {
+            this.moves[position(move.getCurrentCoordinate(), move.getDestinationCoordinate())] = move;
+        }
+    }
+
+    Move get(final int currentCoordinate, final int destinationCoordinate) {
+        if (!BoardUtils.isValidTileCoordinate(currentCoordinate) ||
+            !BoardUtils.isValidTileCoordinate(destinationCoordinate) ||
+            (this.destinations[currentCoordinate] & BitBoard.squareMask(destinationCoordinate)) == 0) {
+            return Move.NULL_MOVE;
+        }
+        return this.moves[position(currentCoordinate, destinationCoordinate)];
+    }
+
+    private int position(final int currentCoordinate, final int destinationCoordinate) {
+        return this.offsets[currentCoordinate] +
+               Long.bitCount(this.destinations[currentCoordinate] & (BitBoard.squareMask(destinationCoordinate) - 1));
+    }
+}
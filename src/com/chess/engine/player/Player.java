@@ -2,32 +2,42 @@ package com.chess.engine.player;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
+import com.chess.engine.board.GameStatus;
 import com.chess.engine.move.Move;
 import com.chess.engine.move.MoveStatus;
 import com.chess.engine.move.MoveTransition;
 import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.Piece;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 public abstract class Player {
 
     protected final Board board;
     protected final King playerKing;
-    protected final Collection<Move> legalMoves;
-    private final boolean isInCheck;
-
+    private final Supplier<Collection<Move>> standardLegalMoves;
+    private final Supplier<LegalMoveGenerator> legalMoveGenerator;
+    private final Supplier<Collection<Move>> legalMoves;
+    private final Supplier<GameStatus> gameStatus;
+    private final Supplier<MoveIndex> legalMoveIndex;
+
+    // Dragen, rockaderna och schackstatusen beräknas först när de efterfrågas och sparas sedan.
+    // Suppliers.memoize är trådsäker, så brädet kan fortfarande delas mellan trådar
     protected Player(final Board board,
-                     final Collection<Move> legalMoves,
-                     final Collection<Move> opponentMoves) {
+                     final Supplier<Collection<Move>> standardLegalMoves) {
         this.board = board;
         this.playerKing = establishKing();
-        this.legalMoves = ImmutableList.copyOf(Iterables.concat(legalMoves, calculateKingCastles(legalMoves, opponentMoves)));
-        this.isInCheck = !Player.calculateAttacksOnTile(this.playerKing.getPiecePosition(), opponentMoves).isEmpty();
+        this.legalMoveGenerator = Suppliers.memoize(() -> new LegalMoveGenerator(board, getAlliance()));
+        this.standardLegalMoves = Suppliers.memoize(() -> ImmutableList.copyOf(Iterables.concat(standardLegalMoves.get(),
+                calculateKingCastles())));
+        this.legalMoves = Suppliers.memoize(() ->
+                this.legalMoveGenerator.get().calculateLegalMoves(this.standardLegalMoves.get()));
+        this.gameStatus = Suppliers.memoize(this::calculateGameStatus);
+        this.legalMoveIndex = Suppliers.memoize(() -> new MoveIndex(getLegalMoves()));
     }
 
     public King getPlayerKing() {
@@ -35,78 +45,82 @@ public abstract class Player {
     }
 
     public Collection<Move> getLegalMoves() {
-        return this.legalMoves;
-    }
-
-    protected static Collection<Move> calculateAttacksOnTile(int piecePosition, Collection<Move> moves) {
-        final List<Move> attackMoves = new ArrayList<>();
-        for (final Move move : moves) {
-            if (piecePosition == move.getDestinationCoordinate()) {
-                attackMoves.add(move);
-            }
-        }
-        return ImmutableList.copyOf(attackMoves);
+        return this.legalMoves.get();
     }
 
     private King establishKing() {
-        for (final Piece piece : getActivePieces()) {
-            if (piece.isKing()) {
-                return (King) piece;
-            }
+        final int kingSquare = this.board.getBitBoard().getKingSquare(getAlliance());
+        if (kingSquare == -1) {
+            throw new RuntimeException("Invalid board - no king");
         }
-        throw new RuntimeException("Invalid board - no king");
+        return (King) this.board.getTile(kingSquare).getPiece();
     }
 
     public boolean isMoveLegal(final Move move) {
-        return this.legalMoves.contains(move);
+        final Move legalMove = getLegalMove(move.getCurrentCoordinate(), move.getDestinationCoordinate());
+        return legalMove != Move.NULL_MOVE && (legalMove == move || legalMove.equals(move));
+    }
+
+    // Det lagliga draget mellan rutorna, eller NULL_MOVE om det inte finns
+    public Move getLegalMove(final int currentCoordinate, final int destinationCoordinate) {
+        return this.legalMoveIndex.get().get(currentCoordinate, destinationCoordinate);
     }
 
     public boolean isInCheck() {
-        return this.isInCheck;
+        return this.board.getAttackMap(getOpponentAlliance()).isAttacked(this.playerKing.getPiecePosition());
+    }
+
+    private Alliance getOpponentAlliance() {
+        return getAlliance().isWhite() ? Alliance.BLACK : Alliance.WHITE;
     }
 
     public boolean isInCheckMate() {
-        return this.isInCheck() && !hasEscapeMoves();
+        return getGameStatus() == GameStatus.CHECKMATE;
+    }
+
+    public boolean isInStalemate() {
+        return getGameStatus() == GameStatus.STALEMATE;
+    }
+
+    public GameStatus getGameStatus() {
+        return this.gameStatus.get();
+    }
+
+    private GameStatus calculateGameStatus() {
+        if (hasEscapeMoves()) {
+            return GameStatus.ONGOING;
+        }
+        return isInCheck() ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
     }
 
+    // Det räcker att hitta ett lagligt drag, hela listan behöver inte filtreras
     protected boolean hasEscapeMoves() {
-        for (final Move move : this.legalMoves) {
-            final MoveTransition transition = makeMove(move);
-            if (transition.getMoveStatus().isDone()) {
+        final LegalMoveGenerator generator = this.legalMoveGenerator.get();
+        for (final Move move : this.standardLegalMoves.get()) {
+            if (generator.isLegal(move)) {
                 return true;
             }
         }
         return false;
     }
 
-    public boolean isInStalemate() {
-        return (!this.isInCheck && !hasEscapeMoves());
-    }
-
     public MoveTransition makeMove(final Move move) {
         // Kontrollerar att draget finns ibland spelarens giltiga drag
         if (!isMoveLegal(move)) {
-            // Om så ej är fallet returneras en ogiltig transition
-            return new MoveTransition(this.board, move, MoveStatus.ILLEGAL_MOVE);
-        }
-
-        final Board transitionBoard = move.execute();
-        final Collection<Move> kingAttacks = Player.calculateAttacksOnTile(transitionBoard.currentPlayer().getOpponent().getPlayerKing().getPiecePosition(),
-                transitionBoard.currentPlayer().getLegalMoves());
-
-        // Vi får ej göra ett drag som lämnar vår kung i schack
-        if (!kingAttacks.isEmpty()) {
-            return new MoveTransition(this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
+            // Ett drag som pjäsen kan göra men som lämnar kungen i schack skiljs från ogiltiga drag
+            final MoveStatus moveStatus = this.standardLegalMoves.get().contains(move) ?
+                    MoveStatus.LEAVES_PLAYER_IN_CHECK : MoveStatus.ILLEGAL_MOVE;
+            return new MoveTransition(this.board, move, moveStatus);
         }
 
         // Gör drag
-        return new MoveTransition(transitionBoard, move, MoveStatus.DONE);
+        return new MoveTransition(move.execute(), move, MoveStatus.DONE);
     }
 
     public abstract Collection<Piece> getActivePieces();
     public abstract Alliance getAlliance();
     public abstract Player getOpponent();
-    protected abstract Collection<Move> calculateKingCastles(Collection<Move> playerLegals, Collection<Move> opponentsLegals);
+    protected abstract Collection<Move> calculateKingCastles();
 }
 
 
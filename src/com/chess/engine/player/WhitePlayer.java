@@ -1,11 +1,13 @@
 package com.chess.engine.player;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.AttackMap;
 import com.chess.engine.board.Board;
 import com.chess.engine.move.Move;
 import com.chess.engine.board.Tile;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.pieces.Rook;
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 
 import java.util.ArrayList;
@@ -17,9 +19,8 @@ import static com.chess.engine.move.Move.*;
 public class WhitePlayer extends Player {
 
     public WhitePlayer(final Board board,
-                       final Collection<Move> legalMoves,
-                       final Collection<Move> opponentLegalMoves) {
-        super(board, legalMoves, opponentLegalMoves);
+                       final Supplier<Collection<Move>> legalMoves) {
+        super(board, legalMoves);
     }
 
     @Override
@@ -38,14 +39,14 @@ public class WhitePlayer extends Player {
     }
 
     @Override
-    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals,
-                                                    final Collection<Move> opponentsLegals) {
+    protected Collection<Move> calculateKingCastles() {
         final List<Move> kingCastles = new ArrayList<>();
+        final AttackMap opponentAttacks = this.board.getAttackMap(Alliance.BLACK);
         if (this.getPlayerKing().isFirstMove() && !this.isInCheck()) {
             // King-side castle move
             if (!this.board.getTile(61).isTileOccupied() && !this.board.getTile(62).isTileOccupied()) {
-                if (Player.calculateAttacksOnTile(61, opponentsLegals).isEmpty() &&
-                    Player.calculateAttacksOnTile(62, opponentsLegals).isEmpty()) {
+                if (!opponentAttacks.isAttacked(61) &&
+                    !opponentAttacks.isAttacked(62)) {
                     final Tile rookTile = this.board.getTile(63);
 
                     if (rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
@@ -62,8 +63,8 @@ public class WhitePlayer extends Player {
             if (!this.board.getTile(59).isTileOccupied() &&
                 !this.board.getTile(58).isTileOccupied() &&
                 !this.board.getTile(57).isTileOccupied()) {
-                if (Player.calculateAttacksOnTile(58, opponentsLegals).isEmpty() &&
-                    Player.calculateAttacksOnTile(59, opponentsLegals).isEmpty()) {
+                if (!opponentAttacks.isAttacked(58) &&
+                    !opponentAttacks.isAttacked(59)) {
                     final Tile rookTile = this.board.getTile(56);
                     if (rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
                         kingCastles.add(new QueenSideCastleMove(this.board, this.playerKing, 58, (Rook) rookTile.getPiece(), rookTile.getTileCoordinate(), 59));
@@ -0,0 +1,512 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.StaticExchange;
+import com.chess.engine.move.Move;
+import com.chess.engine.move.MoveEncoding;
+import com.chess.engine.move.MoveTransition;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Negamax med alfa-beta och iterativ fördjupning över brädmodellen. Varje djup söks färdigt
+// innan nästa börjar, och huvudvariationen från förra djupet söks först. Tar tiden slut mitt
+// i ett djup används resultatet från det senaste färdiga djupet. Tiden fördelas av TimeManager
+// utifrån de SearchLimits sökningen startas med.
+// Ett objekt håller sökningens tillstånd och får bara användas av en tråd åt gången.
+public final class AlphaBeta implements MoveStrategy {
+
+    public static final int MATE_SCORE = 30000;
+    public static final int MAX_PLY = 128;
+
+    private static final int INFINITY = 32000;
+    private static final int TIME_CHECK_INTERVAL = 32;
+
+    private static final int ASPIRATION_MIN_DEPTH = 4;
+    private static final int ASPIRATION_WINDOW = 25;
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int[] RAZOR_MARGINS = {0, 300, 500};
+    private static final int[] FUTILITY_MARGINS = {0, 200, 400};
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_MOVES = 4;
+    private static final int LMR_HISTORY_DIVISOR = 8192;
+    private static final int[][] LMR_REDUCTIONS = initReductions();
+
+    private final SearchLimits defaultLimits;
+    private final BoardEvaluator evaluator;
+    private final TranspositionTable transpositionTable;
+    private final AtomicBoolean stopSignal;
+    private final SearchConfig config;
+    private final MoveOrderer moveOrderer;
+
+    private final Move[][] pvTable;
+    private final int[] pvLength;
+    private long nodes;
+    private TimeManager timeManager;
+    private long maxNodes;
+    private boolean stopped;
+    private long aspirationFailHighs;
+    private long aspirationFailLows;
+    private long pvsResearches;
+    private long reductionResearches;
+
+    public AlphaBeta(final int maxDepth, final long maxTimeMillis) {
+        this(maxDepth, maxTimeMillis, new StandardBoardEvaluator(), null);
+    }
+
+    // transpositionTable får vara null, då söks varje position på nytt
+    public AlphaBeta(final int maxDepth,
+                     final long maxTimeMillis,
+                     final BoardEvaluator evaluator,
+                     final TranspositionTable transpositionTable) {
+        this(maxDepth, maxTimeMillis, evaluator, transpositionTable, SearchConfig.DEFAULT);
+    }
+
+    public AlphaBeta(final int maxDepth,
+                     final long maxTimeMillis,
+                     final BoardEvaluator evaluator,
+                     final TranspositionTable transpositionTable,
+                     final SearchConfig config) {
+        this(maxDepth, maxTimeMillis, evaluator, transpositionTable, config, new AtomicBoolean());
+    }
+
+    // Sökningar som delar stopSignal avbryts tillsammans, se LazySmp
+    AlphaBeta(final int maxDepth,
+              final long maxTimeMillis,
+              final BoardEvaluator evaluator,
+              final TranspositionTable transpositionTable,
+              final SearchConfig config,
+              final AtomicBoolean stopSignal) {
+        this.defaultLimits = SearchLimits.moveTime(maxDepth, maxTimeMillis);
+        this.evaluator = evaluator;
+        this.transpositionTable = transpositionTable;
+        this.stopSignal = stopSignal;
+        this.config = config;
+        this.moveOrderer = new MoveOrderer();
+        this.pvTable = new Move[MAX_PLY + 1][MAX_PLY + 1];
+        this.pvLength = new int[MAX_PLY + 1];
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        return search(board).getBestMove();
+    }
+
+    // Söker med djupet och tiden från konstruktorn
+    public SearchResult search(final Board board) {
+        clearStop();
+        return search(board, this.defaultLimits);
+    }
+
+    // Nollställer inte stoppsignalen, så att ett stop() som kommer innan sökningen hunnit börja
+    // inte går förlorat. Den som startar sökningen anropar clearStop() innan den lämnas över
+    public SearchResult search(final Board board, final SearchLimits limits) {
+        if (this.transpositionTable != null) {
+            this.transpositionTable.newSearch();
+        }
+        return search(board, limits, 1);
+    }
+
+    // Avbryter sökningen från en annan tråd. Det senaste färdiga djupet används, se partialResult
+    // för när inte ens det första djupet hann bli klart
+    public void stop() {
+        this.stopSignal.set(true);
+    }
+
+    public void clearStop() {
+        this.stopSignal.set(false);
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    // Iterativ fördjupning från firstDepth. Stoppsignalen och tabellens ålder sätts av den som
+    // startar sökningen, så att flera sökningar kan dela dem
+    SearchResult search(final Board board, final SearchLimits limits, final int firstDepth) {
+        final long startTime = System.currentTimeMillis();
+        this.timeManager = new TimeManager(limits);
+        this.maxNodes = limits.getMaxNodes();
+        this.nodes = 0;
+        this.stopped = false;
+        this.aspirationFailHighs = 0;
+        this.aspirationFailLows = 0;
+        this.pvsResearches = 0;
+        this.reductionResearches = 0;
+        this.moveOrderer.newSearch();
+
+        SearchResult result = null;
+        List<Move> principalVariation = new ArrayList<>();
+        final int maxDepth = limits.getMaxDepth();
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+            final int score = result != null && depth >= ASPIRATION_MIN_DEPTH && !isMateScore(result.getScore()) ?
+                    aspirationSearch(board, depth, result.getScore(), principalVariation) :
+                    alphaBeta(board, depth, 0, -INFINITY, INFINITY, Move.NULL_MOVE, principalVariation);
+            if (this.stopped) {
+                // Draget kommer från förra djupet, men noderna och tiden ska räkna med det avbrutna djupet
+                result = result == null ? partialResult(board, startTime) :
+                        new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(),
+                                         result.getPrincipalVariation(), this.nodes,
+                                         System.currentTimeMillis() - startTime, getStatistics());
+                break;
+            }
+            principalVariation = Arrays.asList(Arrays.copyOf(this.pvTable[0], this.pvLength[0]));
+            final Move bestMove = principalVariation.isEmpty() ? Move.NULL_MOVE : principalVariation.get(0);
+            result = new SearchResult(bestMove, score, depth, principalVariation, this.nodes,
+                                      System.currentTimeMillis() - startTime, getStatistics());
+            // En forcerad matt blir inte kortare av att söka djupare
+            if (isMateScore(score) || principalVariation.isEmpty()) {
+                break;
+            }
+            // Efter den mjuka gränsen hinner nästa djup sällan bli klart, då är det bättre att spara tiden
+            if (this.stopSignal.get() || !this.timeManager.canStartIteration()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    // Stoppas sökningen innan första djupet är klart används det bästa rotdraget som hann sökas
+    // färdigt, annars det första lagliga draget. Djupet blir 0 och värdet är den statiska värderingen
+    private SearchResult partialResult(final Board board, final long startTime) {
+        Move bestMove = this.pvLength[0] > 0 ? this.pvTable[0][0] : Move.NULL_MOVE;
+        if (bestMove == Move.NULL_MOVE) {
+            for (final Move move : MoveOrderer.orderByCaptures(board.currentPlayer().getLegalMoves(), Move.NULL_MOVE)) {
+                if (board.currentPlayer().makeMove(move).getMoveStatus().isDone()) {
+                    bestMove = move;
+                    break;
+                }
+            }
+        }
+        final List<Move> principalVariation = bestMove == Move.NULL_MOVE ?
+                Collections.<Move>emptyList() : Collections.singletonList(bestMove);
+        return new SearchResult(bestMove, this.evaluator.evaluate(board), 0, principalVariation, this.nodes,
+                                System.currentTimeMillis() - startTime, getStatistics());
+    }
+
+    public SearchStatistics getStatistics() {
+        return new SearchStatistics(this.aspirationFailHighs, this.aspirationFailLows,
+                                    this.pvsResearches, this.reductionResearches);
+    }
+
+    // Roten söks först i ett smalt fönster runt förra djupets värde. Hamnar värdet utanför
+    // breddas fönstret åt det hållet och roten söks om, tills värdet hamnar innanför
+    private int aspirationSearch(final Board board,
+                                 final int depth,
+                                 final int previousScore,
+                                 final List<Move> previousPrincipalVariation) {
+        int window = ASPIRATION_WINDOW;
+        int alpha = Math.max(previousScore - window, -INFINITY);
+        int beta = Math.min(previousScore + window, INFINITY);
+        while (true) {
+            final int score = alphaBeta(board, depth, 0, alpha, beta, Move.NULL_MOVE, previousPrincipalVariation);
+            if (this.stopped) {
+                return 0;
+            }
+            window *= 2;
+            if (score <= alpha) {
+                this.aspirationFailLows++;
+                alpha = Math.max(score - window, -INFINITY);
+            } else if (score >= beta) {
+                this.aspirationFailHighs++;
+                beta = Math.min(score + window, INFINITY);
+            } else {
+                return score;
+            }
+        }
+    }
+
+    public static boolean isMateScore(final int score) {
+        return Math.abs(score) >= MATE_SCORE - MAX_PLY;
+    }
+
+    private int alphaBeta(final Board board,
+                          final int depth,
+                          final int ply,
+                          final int alphaIn,
+                          final int beta,
+                          final Move previousMove,
+                          final List<Move> previousPrincipalVariation) {
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiescence(board, ply, alphaIn, beta);
+        }
+        this.pvLength[ply] = ply;
+        if (countNode()) {
+            return 0;
+        }
+
+        int alpha = alphaIn;
+        final long zobristHash = board.getZobristHash();
+        Move hashMove = Move.NULL_MOVE;
+        if (this.transpositionTable != null) {
+            final long entry = this.transpositionTable.probe(zobristHash);
+            if (entry != TranspositionTable.NO_ENTRY) {
+                final int move = TranspositionTable.getMove(entry);
+                hashMove = board.currentPlayer().getLegalMove(MoveEncoding.getFrom(move), MoveEncoding.getTo(move));
+                // I roten behövs hela huvudvariationen, så där används inte tabellens värde
+                if (ply > 0 && TranspositionTable.getDepth(entry) >= depth) {
+                    final int score = scoreFromTable(TranspositionTable.getScore(entry), ply);
+                    final int bound = TranspositionTable.getBound(entry);
+                    if (bound == TranspositionTable.EXACT ||
+                        (bound == TranspositionTable.LOWER_BOUND && score >= beta) ||
+                        (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+        }
+
+        // Beskärningen görs aldrig i roten, i schack eller nära mattvärden. Fönster som är bredare
+        // än ett kan ge ett nytt huvudvariationsdrag, där används bara nolldraget
+        final boolean inCheck = board.currentPlayer().isInCheck();
+        final boolean pvNode = beta - alphaIn > 1;
+        final boolean canPrune = ply > 0 && !inCheck && !isMateScore(alpha) && !isMateScore(beta);
+        final int staticEval = canPrune ? this.evaluator.evaluate(board) : -INFINITY;
+
+        // Långt under alpha nära löven: räcker inte heller slagen till avbryts noden
+        if (this.config.isRazoring() && canPrune && !pvNode && depth < RAZOR_MARGINS.length &&
+            staticEval + RAZOR_MARGINS[depth] <= alpha) {
+            final int score = quiescence(board, ply, alpha, alpha + 1);
+            if (this.stopped) {
+                return 0;
+            }
+            if (score <= alpha) {
+                return score;
+            }
+        }
+
+        // Nolldrag: håller ställningen över beta även om motståndaren får dra två gånger, så
+        // lönar det sig inte att söka vidare. Med bara kung och bönder är dragtvång för vanligt,
+        // och två nolldrag i rad är aldrig tillåtna
+        if (this.config.isNullMovePruning() && canPrune && depth >= NULL_MOVE_MIN_DEPTH &&
+            previousMove != Move.NULL_MOVE && staticEval >= beta && hasNonPawnMaterial(board)) {
+            final int reduction = depth > 6 ? 3 : 2;
+            final int score = -alphaBeta(board.createNullMoveBoard(), depth - 1 - reduction, ply + 1, -beta, -beta + 1,
+                                         Move.NULL_MOVE, Collections.<Move>emptyList());
+            if (this.stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return isMateScore(score) ? beta : score;
+            }
+        }
+
+        final Collection<Move> legalMoves = board.currentPlayer().getLegalMoves();
+        if (legalMoves.isEmpty()) {
+            return inCheck ? -MATE_SCORE + ply : 0;
+        }
+        // Lugna drag som inte kan lyfta värdet till alpha hoppas över nära löven
+        final boolean futilityPruning = this.config.isFutilityPruning() && canPrune && !pvNode &&
+                                        depth < FUTILITY_MARGINS.length &&
+                                        staticEval + FUTILITY_MARGINS[depth] <= alpha;
+        // Huvudvariationen från förra djupet går före tabellens drag. Dragen hör till förra
+        // sökningens bräden, så draget hämtas på nytt från detta bräde
+        final Move pvMove = ply < previousPrincipalVariation.size() ?
+                board.currentPlayer().getLegalMove(previousPrincipalVariation.get(ply).getCurrentCoordinate(),
+                                                   previousPrincipalVariation.get(ply).getDestinationCoordinate()) :
+                Move.NULL_MOVE;
+        final MovePicker movePicker = this.moveOrderer.createPicker(legalMoves, pvMove != Move.NULL_MOVE ? pvMove : hashMove,
+                                                                    ply, previousMove);
+        final List<Move> searchedQuiets = new ArrayList<>();
+
+        int bestScore = -INFINITY;
+        Move bestMove = Move.NULL_MOVE;
+        int moveCount = 0;
+        for (Move move = movePicker.next(); move != Move.NULL_MOVE; move = movePicker.next()) {
+            final boolean quiet = MoveOrderer.isQuiet(move) && !move.isCastlingMove();
+            // Schack avgörs på bitboards, så att beskurna drag aldrig behöver göras
+            final boolean givesCheck = quiet && board.getBitBoard().givesCheck(move.getCurrentCoordinate(),
+                    move.getDestinationCoordinate(), move.getMovedPiece().getPieceType(),
+                    move.getMovedPiece().getPieceAlliance());
+            // Schackdrag beskärs aldrig, de kan lyfta värdet långt mer än marginalen
+            if (futilityPruning && moveCount > 0 && quiet && !givesCheck) {
+                bestScore = Math.max(bestScore, staticEval + FUTILITY_MARGINS[depth]);
+                continue;
+            }
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (!transition.getMoveStatus().isDone()) {
+                continue;
+            }
+            final Board childBoard = transition.getTransitionBoard();
+            moveCount++;
+            final List<Move> childPrincipalVariation = move == pvMove ?
+                    previousPrincipalVariation : Collections.<Move>emptyList();
+
+            // Principal variation search: första draget söks med helt fönster, resten med nollfönster
+            // för att visa att de inte är bättre. Sena lugna drag söks dessutom grundare först
+            int reduction = 0;
+            if (this.config.isLateMoveReductions() && depth >= LMR_MIN_DEPTH && moveCount >= LMR_MIN_MOVES &&
+                quiet && !inCheck && !givesCheck) {
+                reduction = LMR_REDUCTIONS[Math.min(depth, LMR_REDUCTIONS.length - 1)][Math.min(moveCount, LMR_REDUCTIONS.length - 1)] -
+                            this.moveOrderer.getHistoryScore(move) / LMR_HISTORY_DIVISOR - (pvNode ? 1 : 0);
+                reduction = Math.max(0, Math.min(reduction, depth - 2));
+            }
+            int score;
+            if (moveCount == 1) {
+                score = -alphaBeta(childBoard, depth - 1, ply + 1, -beta, -alpha, move, childPrincipalVariation);
+            } else {
+                score = -alphaBeta(childBoard, depth - 1 - reduction, ply + 1, -alpha - 1, -alpha,
+                                   move, childPrincipalVariation);
+                if (score > alpha && reduction > 0 && !this.stopped) {
+                    this.reductionResearches++;
+                    score = -alphaBeta(childBoard, depth - 1, ply + 1, -alpha - 1, -alpha, move, childPrincipalVariation);
+                }
+                // Bara i noder med helt fönster kan ett bättre drag ge ett nytt exakt värde
+                if (score > alpha && score < beta && !this.stopped) {
+                    this.pvsResearches++;
+                    score = -alphaBeta(childBoard, depth - 1, ply + 1, -beta, -alpha, move, childPrincipalVariation);
+                }
+            }
+            if (this.stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        if (MoveOrderer.isQuiet(move)) {
+                            this.moveOrderer.updateQuietCutoff(move, ply, depth, previousMove, searchedQuiets);
+                        }
+                        break;
+                    }
+                }
+            }
+            if (MoveOrderer.isQuiet(move)) {
+                searchedQuiets.add(move);
+            }
+        }
+
+        if (this.transpositionTable != null) {
+            final int bound = bestScore <= alphaIn ? TranspositionTable.UPPER_BOUND :
+                              bestScore >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+            this.transpositionTable.store(zobristHash, MoveEncoding.encode(bestMove),
+                                          scoreToTable(bestScore, ply), depth, bound);
+        }
+        return bestScore;
+    }
+
+    // Söker bara slag och promoveringar tills positionen är lugn, så att värdet inte tas mitt i
+    // en slagväxling. Slag som förlorar material enligt StaticExchange hoppas över. Står
+    // spelaren i schack söks alla drag, eftersom det inte går att stå kvar
+    private int quiescence(final Board board, final int ply, final int alphaIn, final int beta) {
+        this.pvLength[ply] = ply;
+        if (countNode()) {
+            return 0;
+        }
+        final boolean inCheck = board.currentPlayer().isInCheck();
+        if (ply >= MAX_PLY) {
+            return inCheck ? 0 : this.evaluator.evaluate(board);
+        }
+        int alpha = alphaIn;
+        int bestScore = -INFINITY;
+        if (!inCheck) {
+            bestScore = this.evaluator.evaluate(board);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        final Collection<Move> legalMoves = board.currentPlayer().getLegalMoves();
+        if (legalMoves.isEmpty()) {
+            return inCheck ? -MATE_SCORE + ply : 0;
+        }
+        final List<Move> moves = inCheck ? MoveOrderer.orderByCaptures(legalMoves, Move.NULL_MOVE)
+                                         : MoveOrderer.orderCaptures(legalMoves);
+        for (final Move move : moves) {
+            if (!inCheck && !(move instanceof Move.PawnPromotion) && StaticExchange.evaluate(board, move) < 0) {
+                continue;
+            }
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (!transition.getMoveStatus().isDone()) {
+                continue;
+            }
+            final int score = -quiescence(transition.getTransitionBoard(), ply + 1, -beta, -alpha);
+            if (this.stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    private static boolean hasNonPawnMaterial(final Board board) {
+        final Alliance alliance = board.currentPlayer().getAlliance();
+        final BitBoard bitBoard = board.getBitBoard();
+        return (bitBoard.getOccupancy(alliance) &
+                ~(bitBoard.getPieces(alliance, PieceType.PAWN) | bitBoard.getPieces(alliance, PieceType.KING))) != 0;
+    }
+
+    // Reduktionen växer med både återstående djup och hur sent draget kommer
+    private static int[][] initReductions() {
+        final int[][] reductions = new int[64][64];
+        for (int depth = 1; depth < reductions.length; depth++) {
+            for (int moveCount = 1; moveCount < reductions[depth].length; moveCount++) {
+                reductions[depth][moveCount] = (int) (0.75 + Math.log(depth) * Math.log(moveCount) / 2.25);
+            }
+        }
+        return reductions;
+    }
+
+    // Räknar noden och ser efter om sökningen ska avbrytas, tiden läses bara med jämna mellanrum
+    private boolean countNode() {
+        this.nodes++;
+        if (!this.stopped) {
+            if (this.maxNodes > 0 && this.nodes >= this.maxNodes) {
+                this.stopped = true;
+            } else if ((this.nodes & (TIME_CHECK_INTERVAL - 1)) == 0 &&
+                       (this.stopSignal.get() || this.timeManager.isHardLimitReached())) {
+                this.stopped = true;
+            }
+        }
+        return this.stopped;
+    }
+
+    private void updatePrincipalVariation(final int ply, final Move move) {
+        this.pvTable[ply][ply] = move;
+        for (int next = ply + 1; next < this.pvLength[ply + 1]; next++) {
+            this.pvTable[ply][next] = this.pvTable[ply + 1][next];
+        }
+        this.pvLength[ply] = Math.max(this.pvLength[ply + 1], ply + 1);
+    }
+
+    // Mattvärden lagras relativt positionen, så att de gäller oavsett var i trädet den hittas
+    private static int scoreToTable(final int score, final int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE_SCORE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int scoreFromTable(final int score, final int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE_SCORE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+}
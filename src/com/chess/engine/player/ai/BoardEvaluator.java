@@ -0,0 +1,9 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+
+public interface BoardEvaluator {
+
+    // Värdet i centipawns, sett från spelaren vid draget
+    int evaluate(Board board);
+}
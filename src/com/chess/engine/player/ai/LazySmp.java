@@ -0,0 +1,260 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.move.Move;
+import com.chess.pgn.FenUtilities;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Lazy SMP: alla trådar söker samma rot med egna AlphaBeta-objekt och delar bara
+// transpositionstabellen. Varannan hjälptråd börjar ett djup längre fram, så att trådarna
+// hamnar på olika djup och fyller tabellen med olika delträd. Den anropande tråden är
+// huvudtråden, när den är klar stoppas hjälptrådarna och det djupaste färdiga resultatet används.
+public final class LazySmp implements MoveStrategy {
+
+    private static final String STANDARD_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final long BYTES_PER_MEGABYTE = 1L << 20;
+    private static final String USAGE =
+            "Usage: LazySmp <depth> [-fen <FEN>] [-threads <n>] [-hash <MB>] [-time <ms>] [-clock <ms>] [-inc <ms>] [-nodes <n>]" +
+            " [-compare] [-nonull] [-nolmr] [-nofutility] [-norazor]";
+
+    private final SearchLimits defaultLimits;
+    private final TranspositionTable transpositionTable;
+    private final SearchConfig config;
+    private final AtomicBoolean stopSignal;
+
+    private List<AlphaBeta> workers;
+    private ExecutorService helperPool;
+
+    public LazySmp(final int threads,
+                   final int maxDepth,
+                   final long maxTimeMillis,
+                   final TranspositionTable transpositionTable) {
+        this(threads, maxDepth, maxTimeMillis, transpositionTable, SearchConfig.DEFAULT);
+    }
+
+    public LazySmp(final int threads,
+                   final int maxDepth,
+                   final long maxTimeMillis,
+                   final TranspositionTable transpositionTable,
+                   final SearchConfig config) {
+        this.defaultLimits = SearchLimits.moveTime(maxDepth, maxTimeMillis);
+        // Trådarna samarbetar bara genom tabellen, utan den söker alla samma träd
+        this.transpositionTable = Objects.requireNonNull(transpositionTable, "Lazy SMP needs a shared transposition table");
+        this.config = config;
+        this.stopSignal = new AtomicBoolean();
+        setThreadCount(threads);
+    }
+
+    // Kan ändras mellan sökningar, men inte medan en sökning pågår
+    public void setThreadCount(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1, was " + threads);
+        }
+        shutdown();
+        this.workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            this.workers.add(new AlphaBeta(this.defaultLimits.getMaxDepth(), 0, new StandardBoardEvaluator(),
+                                           this.transpositionTable, this.config, this.stopSignal));
+        }
+        this.helperPool = threads > 1 ?
+                Executors.newFixedThreadPool(threads - 1, new ThreadFactoryBuilder().setNameFormat("lazy-smp-%d")
+                                                                                   .setDaemon(true)
+                                                                                   .build()) :
+                null;
+    }
+
+    public int getThreadCount() {
+        return this.workers.size();
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        return search(board).getBestMove();
+    }
+
+    public SearchResult search(final Board board) {
+        return search(board, this.defaultLimits);
+    }
+
+    public SearchResult search(final Board board, final SearchLimits limits) {
+        final long startTime = System.currentTimeMillis();
+        this.stopSignal.set(false);
+        this.transpositionTable.newSearch();
+
+        // Bara huvudtråden har tids- och nodgränser, hjälptrådarna söker tills de stoppas
+        final SearchLimits helperLimits = SearchLimits.depth(limits.getMaxDepth());
+        final List<Future<SearchResult>> helpers = new ArrayList<>();
+        for (int i = 1; i < this.workers.size(); i++) {
+            final AlphaBeta helper = this.workers.get(i);
+            final int firstDepth = 1 + (i & 1);
+            helpers.add(this.helperPool.submit(() -> helper.search(board, helperLimits, firstDepth)));
+        }
+        SearchResult bestResult = this.workers.get(0).search(board, limits, 1);
+        this.stopSignal.set(true);
+
+        // Vid samma djup går huvudtrådens resultat före, annars används det djupaste
+        for (final Future<SearchResult> helper : helpers) {
+            final SearchResult result = join(helper);
+            if (result != null && result.getDepth() > bestResult.getDepth()) {
+                bestResult = result;
+            }
+        }
+        long nodes = 0;
+        for (final AlphaBeta worker : this.workers) {
+            nodes += worker.getNodes();
+        }
+        return new SearchResult(bestResult.getBestMove(), bestResult.getScore(), bestResult.getDepth(),
+                                bestResult.getPrincipalVariation(), nodes, System.currentTimeMillis() - startTime,
+                                bestResult.getStatistics());
+    }
+
+    // Avbryter sökningen från en annan tråd, huvudtrådens senaste färdiga djup används
+    public void stop() {
+        this.stopSignal.set(true);
+    }
+
+    // Antal noder varje tråd sökte under senaste sökningen
+    public Map<String, Long> getNodesPerThread() {
+        final Map<String, Long> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < this.workers.size(); i++) {
+            nodes.put(i == 0 ? "main" : "helper-" + i, this.workers.get(i).getNodes());
+        }
+        return nodes;
+    }
+
+    public void shutdown() {
+        if (this.helperPool != null) {
+            this.helperPool.shutdownNow();
+            this.helperPool = null;
+        }
+    }
+
+    private static SearchResult join(final Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (final ExecutionException e) {
+            throw new RuntimeException("Search thread failed", e.getCause());
+        }
+    }
+
+    // LazySmp <djup> [-fen <FEN>] [-threads <n>] [-hash <MB>] [-time <ms>] [-clock <ms>] [-inc <ms>]
+    //         [-nodes <n>] [-compare] [-nonull] [-nolmr] [-nofutility] [-norazor]
+    public static void main(final String[] args) {
+        if (args.length == 0) {
+            System.out.println(USAGE);
+            return;
+        }
+        final int depth = Integer.parseInt(args[0]);
+        String fen = STANDARD_FEN;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long hashSizeInBytes = 64 * BYTES_PER_MEGABYTE;
+        final SearchLimits.Builder limitsBuilder = new SearchLimits.Builder().setMaxDepth(depth);
+        boolean compare = false;
+        final SearchConfig.Builder configBuilder = new SearchConfig.Builder();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "-fen":
+                    fen = args[++i];
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-hash":
+                    hashSizeInBytes = Long.parseLong(args[++i]) * BYTES_PER_MEGABYTE;
+                    break;
+                case "-time":
+                    limitsBuilder.setMoveTime(Long.parseLong(args[++i]));
+                    break;
+                case "-clock":
+                    limitsBuilder.setRemainingTime(Long.parseLong(args[++i]));
+                    break;
+                case "-inc":
+                    limitsBuilder.setIncrement(Long.parseLong(args[++i]));
+                    break;
+                case "-nodes":
+                    limitsBuilder.setMaxNodes(Long.parseLong(args[++i]));
+                    break;
+                case "-compare":
+                    compare = true;
+                    break;
+                case "-nonull":
+                    configBuilder.setNullMovePruning(false);
+                    break;
+                case "-nolmr":
+                    configBuilder.setLateMoveReductions(false);
+                    break;
+                case "-nofutility":
+                    configBuilder.setFutilityPruning(false);
+                    break;
+                case "-norazor":
+                    configBuilder.setRazoring(false);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i] + "\n" + USAGE);
+            }
+        }
+
+        final Board board = FenUtilities.createGameFromFEN(fen);
+        final SearchConfig config = configBuilder.build();
+        final SearchLimits limits = limitsBuilder.build();
+        System.out.println("Search: " + config);
+        System.out.println("Limits: " + limits);
+        if (limits.isTimeLimited()) {
+            // Samma fördelning som sökningen gör, så att det syns när nästa djup inte påbörjas
+            final TimeManager timeManager = new TimeManager(limits);
+            System.out.println("Time: soft " + timeManager.getSoftLimitMillis() + " ms, hard " +
+                               timeManager.getHardLimitMillis() + " ms");
+        }
+        SearchResult serialResult = null;
+        if (compare) {
+            // Seriell referens med en egen tabell, så att den parallella sökningen inte får en varm tabell
+            final TranspositionTable serialTable = new TranspositionTable(hashSizeInBytes);
+            serialResult = new AlphaBeta(depth, 0, new StandardBoardEvaluator(), serialTable, config).search(board, limits);
+            System.out.println("Serial");
+            System.out.println(serialResult);
+            printTableUsage(serialTable);
+            System.out.println();
+        }
+
+        final TranspositionTable transpositionTable = new TranspositionTable(hashSizeInBytes);
+        final LazySmp lazySmp = new LazySmp(threads, depth, 0, transpositionTable, config);
+        try {
+            final SearchResult result = lazySmp.search(board, limits);
+            System.out.println("Lazy SMP, " + threads + " threads");
+            System.out.println(result);
+            for (final Map.Entry<String, Long> entry : lazySmp.getNodesPerThread().entrySet()) {
+                System.out.println("  " + entry.getKey() + ": " + entry.getValue() + " nodes");
+            }
+            printTableUsage(transpositionTable);
+            if (serialResult != null) {
+                // Tid till samma djup, inte noder per sekund, eftersom hjälptrådarnas noder delvis är dubbelarbete
+                System.out.println("Speedup: " + String.format("%.2f", (double) Math.max(1, serialResult.getElapsedMillis()) /
+                                                                       Math.max(1, result.getElapsedMillis())));
+                System.out.println("Node ratio: " + String.format("%.2f", (double) result.getNodes() /
+                                                                          Math.max(1, serialResult.getNodes())));
+            }
+        } finally {
+            lazySmp.shutdown();
+        }
+    }
+
+    // Hur full tabellen blev av sökningen, räknat på poster från just den sökningen
+    private static void printTableUsage(final TranspositionTable transpositionTable) {
+        System.out.println("Hash: " + transpositionTable.getSizeInBytes() / BYTES_PER_MEGABYTE + " MB, " +
+                           transpositionTable.getUsagePermill() + " permill full");
+    }
+}
@@ -0,0 +1,132 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.move.Move;
+import com.chess.engine.move.Move.PawnPromotion;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Tabellerna för dragordningen: killer-drag per ply, historik och motdrag. Dragen sparas som
+// från- och till-ruta, eftersom Move-objekten hör till ett visst bräde. Varje sökning har sin
+// egen MoveOrderer och den används bara av en tråd, så tabellerna behöver inga lås.
+final class MoveOrderer {
+
+    static final int NO_MOVE = 0;
+
+    private static final int NUM_KILLERS = 2;
+    private static final int NUM_SQUARE_PAIRS = 64 * 64;
+    // Historiken dras mot noll när den närmar sig taket, så att gamla värden inte dominerar
+    private static final int MAX_HISTORY = 16384;
+
+    private final int[][] killers;
+    private final int[][] history;
+    private final int[][] counterMoves;
+
+    MoveOrderer() {
+        this.killers = new int[AlphaBeta.MAX_PLY + 1][NUM_KILLERS];
+        this.history = new int[Alliance.values().length][NUM_SQUARE_PAIRS];
+        this.counterMoves = new int[Alliance.values().length][NUM_SQUARE_PAIRS];
+    }
+
+    // Dragen från positionen i den ordning de ska sökas, se MovePicker
+    MovePicker createPicker(final Collection<Move> moves,
+                            final Move hashMove,
+                            final int ply,
+                            final Move previousMove) {
+        final int counterMove = previousMove != Move.NULL_MOVE ?
+                this.counterMoves[previousMove.getMovedPiece().getPieceAlliance().ordinal()][squarePair(previousMove)] :
+                NO_MOVE;
+        return new MovePicker(this, moves, hashMove, this.killers[ply], counterMove);
+    }
+
+    // Ett lugnt drag gav cutoff. Det blir killer och motdrag, och får högre historik medan
+    // de lugna drag som söktes före det sänks
+    void updateQuietCutoff(final Move move,
+                           final int ply,
+                           final int depth,
+                           final Move previousMove,
+                           final List<Move> searchedQuiets) {
+        final int key = squarePair(move);
+        final int[] plyKillers = this.killers[ply];
+        if (plyKillers[0] != key) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = key;
+        }
+        if (previousMove != Move.NULL_MOVE) {
+            this.counterMoves[previousMove.getMovedPiece().getPieceAlliance().ordinal()][squarePair(previousMove)] = key;
+        }
+        final int bonus = Math.min(depth * depth, MAX_HISTORY);
+        updateHistory(move, bonus);
+        for (final Move searchedQuiet : searchedQuiets) {
+            updateHistory(searchedQuiet, -bonus);
+        }
+    }
+
+    int getHistoryScore(final Move move) {
+        return this.history[move.getMovedPiece().getPieceAlliance().ordinal()][squarePair(move)];
+    }
+
+    // Killer-dragen gäller bara positionerna i förra sökningen, historiken halveras
+    void newSearch() {
+        for (final int[] plyKillers : this.killers) {
+            plyKillers[0] = NO_MOVE;
+            plyKillers[1] = NO_MOVE;
+        }
+        for (final int[] sideHistory : this.history) {
+            for (int i = 0; i < sideHistory.length; i++) {
+                sideHistory[i] /= 2;
+            }
+        }
+    }
+
+    private void updateHistory(final Move move, final int bonus) {
+        final int[] sideHistory = this.history[move.getMovedPiece().getPieceAlliance().ordinal()];
+        final int key = squarePair(move);
+        sideHistory[key] += bonus - sideHistory[key] * Math.abs(bonus) / MAX_HISTORY;
+    }
+
+    static int squarePair(final Move move) {
+        return move.getCurrentCoordinate() * 64 + move.getDestinationCoordinate();
+    }
+
+    static boolean isQuiet(final Move move) {
+        return !move.isAttack() && !(move instanceof PawnPromotion);
+    }
+
+    // Värdefullt offer och billig angripare först. Promoveringar räknas som slag av en dam
+    static int captureScore(final Move move) {
+        final int victimValue = move.isAttack() ? move.getAttackedPiece().getPieceValue() : 0;
+        final int promotionValue = move instanceof PawnPromotion ? PieceType.QUEEN.getPieceValue() : 0;
+        return (victimValue + promotionValue) * 8 - move.getMovedPiece().getPieceType().ordinal();
+    }
+
+    // Dragordning utan tabeller, för sökningar där flera trådar delar på noderna
+    static List<Move> orderByCaptures(final Collection<Move> moves, final Move firstMove) {
+        final List<Move> orderedMoves = new ArrayList<>(moves);
+        orderedMoves.sort((first, second) -> Integer.compare(staticScore(second, firstMove), staticScore(first, firstMove)));
+        return orderedMoves;
+    }
+
+    // Bara slag och promoveringar, sorterade som i orderByCaptures. De lugna dragen kopieras
+    // och sorteras aldrig, kviescenssökningen skulle ändå inte titta på dem
+    static List<Move> orderCaptures(final Collection<Move> moves) {
+        final List<Move> captures = new ArrayList<>();
+        for (final Move move : moves) {
+            if (!isQuiet(move)) {
+                captures.add(move);
+            }
+        }
+        captures.sort((first, second) -> Integer.compare(captureScore(second), captureScore(first)));
+        return captures;
+    }
+
+    private static int staticScore(final Move move, final Move firstMove) {
+        if (move == firstMove) {
+            return Integer.MAX_VALUE;
+        }
+        return isQuiet(move) ? 0 : 1 + captureScore(move);
+    }
+}
@@ -0,0 +1,151 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.move.Move;
+
+import java.util.Collection;
+
+// Lämnar ut dragen i steg: tabellens drag, slag efter offer och angripare, killer-drag, motdrag
+// och sist lugna drag efter historik. Varje steg sorteras först när det nås, så en cutoff på
+// tabellens drag kostar ingen sortering alls.
+final class MovePicker {
+
+    private enum Stage {
+        HASH_MOVE,
+        INIT_CAPTURES,
+        CAPTURES,
+        KILLERS,
+        COUNTER_MOVE,
+        INIT_QUIETS,
+        QUIETS,
+        DONE
+    }
+
+    private final MoveOrderer moveOrderer;
+    private final Collection<Move> moves;
+    private final Move hashMove;
+    private final int[] killers;
+    private final int counterMove;
+
+    private Stage stage;
+    private Move[] captures;
+    private int[] captureScores;
+    private int captureCount;
+    private Move[] quiets;
+    private int[] quietScores;
+    private int quietCount;
+    private int killerIndex;
+
+    MovePicker(final MoveOrderer moveOrderer,
+               final Collection<Move> moves,
+               final Move hashMove,
+               final int[] killers,
+               final int counterMove) {
+        this.moveOrderer = moveOrderer;
+        this.moves = moves;
+        this.hashMove = hashMove;
+        this.killers = killers;
+        this.counterMove = counterMove;
+        this.stage = Stage.HASH_MOVE;
+    }
+
+    // Nästa drag, eller Move.NULL_MOVE när alla dragen lämnats ut
+    Move next() {
+        while (true) {
+            switch (this.stage) {
+                case HASH_MOVE:
+                    this.stage = Stage.INIT_CAPTURES;
+                    if (this.hashMove != Move.NULL_MOVE) {
+                        return this.hashMove;
+                    }
+                    break;
+                case INIT_CAPTURES:
+                    partitionMoves();
+                    this.stage = Stage.CAPTURES;
+                    break;
+                case CAPTURES:
+                    if (this.captureCount > 0) {
+                        return pickBest(this.captures, this.captureScores, this.captureCount--);
+                    }
+                    this.stage = Stage.KILLERS;
+                    break;
+                case KILLERS:
+                    while (this.killerIndex < this.killers.length) {
+                        final Move killer = takeQuiet(this.killers[this.killerIndex++]);
+                        if (killer != Move.NULL_MOVE) {
+                            return killer;
+                        }
+                    }
+                    this.stage = Stage.COUNTER_MOVE;
+                    break;
+                case COUNTER_MOVE:
+                    this.stage = Stage.INIT_QUIETS;
+                    final Move counterMove = takeQuiet(this.counterMove);
+                    if (counterMove != Move.NULL_MOVE) {
+                        return counterMove;
+                    }
+                    break;
+                case INIT_QUIETS:
+                    this.quietScores = new int[this.quietCount];
+                    for (int i = 0; i < this.quietCount; i++) {
+                        this.quietScores[i] = this.moveOrderer.getHistoryScore(this.quiets[i]);
+                    }
+                    this.stage = Stage.QUIETS;
+                    break;
+                case QUIETS:
+                    if (this.quietCount > 0) {
+                        return pickBest(this.quiets, this.quietScores, this.quietCount--);
+                    }
+                    this.stage = Stage.DONE;
+                    break;
+                default:
+                    return Move.NULL_MOVE;
+            }
+        }
+    }
+
+    private void partitionMoves() {
+        this.captures = new Move[this.moves.size()];
+        this.captureScores = new int[this.moves.size()];
+        this.quiets = new Move[this.moves.size()];
+        for (final Move move : this.moves) {
+            if (move == this.hashMove) {
+                continue;
+            }
+            if (MoveOrderer.isQuiet(move)) {
+                this.quiets[this.quietCount++] = move;
+            } else {
+                this.captureScores[this.captureCount] = MoveOrderer.captureScore(move);
+                this.captures[this.captureCount++] = move;
+            }
+        }
+    }
+
+    // Tar bort ett lugnt drag med de givna rutorna ur listan, så att det inte lämnas ut två gånger
+    private Move takeQuiet(final int squarePair) {
+        if (squarePair == MoveOrderer.NO_MOVE) {
+            return Move.NULL_MOVE;
+        }
+        for (int i = 0; i < this.quietCount; i++) {
+            if (MoveOrderer.squarePair(this.quiets[i]) == squarePair) {
+                final Move move = this.quiets[i];
+                this.quiets[i] = this.quiets[--this.quietCount];
+                return move;
+            }
+        }
+        return Move.NULL_MOVE;
+    }
+
+    // Urvalssortering ett drag i taget, det bästa flyttas ut och det sista tar dess plats
+    private static Move pickBest(final Move[] moves, final int[] scores, final int count) {
+        int best = 0;
+        for (int i = 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        final Move move = moves[best];
+        moves[best] = moves[count - 1];
+        scores[best] = scores[count - 1];
+        return move;
+    }
+}
@@ -0,0 +1,9 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.move.Move;
+
+public interface MoveStrategy {
+
+    Move execute(Board board);
+}
@@ -0,0 +1,77 @@
+package com.chess.engine.player.ai;
+
+// Vilka selektiva tekniker AlphaBeta använder. Var och en kan stängas av för att mäta hur
+// mycket den påverkar tiden till ett visst djup.
+public final class SearchConfig {
+
+    public static final SearchConfig DEFAULT = new Builder().build();
+
+    private final boolean nullMovePruning;
+    private final boolean lateMoveReductions;
+    private final boolean futilityPruning;
+    private final boolean razoring;
+
+    private SearchConfig(final Builder builder) {
+        this.nullMovePruning = builder.nullMovePruning;
+        this.lateMoveReductions = builder.lateMoveReductions;
+        this.futilityPruning = builder.futilityPruning;
+        this.razoring = builder.razoring;
+    }
+
+    public boolean isNullMovePruning() {
+        return this.nullMovePruning;
+    }
+
+    public boolean isLateMoveReductions() {
+        return this.lateMoveReductions;
+    }
+
+    public boolean isFutilityPruning() {
+        return this.futilityPruning;
+    }
+
+    public boolean isRazoring() {
+        return this.razoring;
+    }
+
+    @Override
+    public String toString() {
+        return "null move " + this.nullMovePruning +
+               ", late move reductions " + this.lateMoveReductions +
+               ", futility " + this.futilityPruning +
+               ", razoring " + this.razoring;
+    }
+
+    // Allt är påslaget om inget annat anges
+    public static class Builder {
+
+        private boolean nullMovePruning = true;
+        private boolean lateMoveReductions = true;
+        private boolean futilityPruning = true;
+        private boolean razoring = true;
+
+        public Builder setNullMovePruning(final boolean nullMovePruning) {
+            this.nullMovePruning = nullMovePruning;
+            return this;
+        }
+
+        public Builder setLateMoveReductions(final boolean lateMoveReductions) {
+            this.lateMoveReductions = lateMoveReductions;
+            return this;
+        }
+
+        public Builder setFutilityPruning(final boolean futilityPruning) {
+            this.futilityPruning = futilityPruning;
+            return this;
+        }
+
+        public Builder setRazoring(final boolean razoring) {
+            this.razoring = razoring;
+            return this;
+        }
+
+        public SearchConfig build() {
+            return new SearchConfig(this);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.chess.engine.player.ai;
+
+// Gränserna för en sökning. Antingen en fast tid per drag, eller återstående tid på klockan
+// och tillägg per drag, som TimeManager fördelar. Noll betyder att gränsen inte används.
+public final class SearchLimits {
+
+    private final int maxDepth;
+    private final long moveTimeMillis;
+    private final long remainingTimeMillis;
+    private final long incrementMillis;
+    private final int movesToGo;
+    private final long maxNodes;
+
+    private SearchLimits(final Builder builder) {
+        this.maxDepth = builder.maxDepth;
+        this.moveTimeMillis = builder.moveTimeMillis;
+        this.remainingTimeMillis = builder.remainingTimeMillis;
+        this.incrementMillis = builder.incrementMillis;
+        this.movesToGo = builder.movesToGo;
+        this.maxNodes = builder.maxNodes;
+    }
+
+    public static SearchLimits depth(final int maxDepth) {
+        return new Builder().setMaxDepth(maxDepth).build();
+    }
+
+    public static SearchLimits moveTime(final int maxDepth, final long moveTimeMillis) {
+        return new Builder().setMaxDepth(maxDepth).setMoveTime(moveTimeMillis).build();
+    }
+
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    public long getMoveTimeMillis() {
+        return this.moveTimeMillis;
+    }
+
+    public long getRemainingTimeMillis() {
+        return this.remainingTimeMillis;
+    }
+
+    public long getIncrementMillis() {
+        return this.incrementMillis;
+    }
+
+    public int getMovesToGo() {
+        return this.movesToGo;
+    }
+
+    public long getMaxNodes() {
+        return this.maxNodes;
+    }
+
+    public boolean isTimeLimited() {
+        return this.moveTimeMillis > 0 || this.remainingTimeMillis > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + this.maxDepth +
+               " movetime " + this.moveTimeMillis +
+               " remaining " + this.remainingTimeMillis +
+               " increment " + this.incrementMillis +
+               " movestogo " + this.movesToGo +
+               " nodes " + this.maxNodes;
+    }
+
+    public static class Builder {
+
+        private int maxDepth = AlphaBeta.MAX_PLY - 1;
+        private long moveTimeMillis;
+        private long remainingTimeMillis;
+        private long incrementMillis;
+        private int movesToGo;
+        private long maxNodes;
+
+        public Builder setMaxDepth(final int maxDepth) {
+            if (maxDepth < 1 || maxDepth >= AlphaBeta.MAX_PLY) {
+                throw new IllegalArgumentException("Search depth must be between 1 and " + (AlphaBeta.MAX_PLY - 1) + ", was " + maxDepth);
+            }
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public Builder setMoveTime(final long moveTimeMillis) {
+            this.moveTimeMillis = moveTimeMillis;
+            return this;
+        }
+
+        public Builder setRemainingTime(final long remainingTimeMillis) {
+            this.remainingTimeMillis = remainingTimeMillis;
+            return this;
+        }
+
+        public Builder setIncrement(final long incrementMillis) {
+            this.incrementMillis = incrementMillis;
+            return this;
+        }
+
+        public Builder setMovesToGo(final int movesToGo) {
+            this.movesToGo = movesToGo;
+            return this;
+        }
+
+        public Builder setMaxNodes(final long maxNodes) {
+            this.maxNodes = maxNodes;
+            return this;
+        }
+
+        public SearchLimits build() {
+            return new SearchLimits(this);
+        }
+    }
+}
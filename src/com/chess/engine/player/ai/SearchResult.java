@@ -0,0 +1,94 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.move.Move;
+import com.chess.engine.move.MoveEncoding;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+public final class SearchResult {
+
+    private final Move bestMove;
+    private final int score;
+    private final int depth;
+    private final List<Move> principalVariation;
+    private final long nodes;
+    private final long elapsedMillis;
+    private final SearchStatistics statistics;
+
+    SearchResult(final Move bestMove,
+                 final int score,
+                 final int depth,
+                 final List<Move> principalVariation,
+                 final long nodes,
+                 final long elapsedMillis) {
+        this(bestMove, score, depth, principalVariation, nodes, elapsedMillis, SearchStatistics.EMPTY);
+    }
+
+    SearchResult(final Move bestMove,
+                 final int score,
+                 final int depth,
+                 final List<Move> principalVariation,
+                 final long nodes,
+                 final long elapsedMillis,
+                 final SearchStatistics statistics) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.principalVariation = ImmutableList.copyOf(principalVariation);
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+        this.statistics = statistics;
+    }
+
+    public Move getBestMove() {
+        return this.bestMove;
+    }
+
+    // Värdet för spelaren vid draget i centipawns, se AlphaBeta.isMateScore för matt
+    public int getScore() {
+        return this.score;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public List<Move> getPrincipalVariation() {
+        return this.principalVariation;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    public SearchStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    public long getNodesPerSecond() {
+        return this.nodes * 1000 / Math.max(1, this.elapsedMillis);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("depth ").append(this.depth)
+               .append(" score ").append(this.score)
+               .append(" nodes ").append(this.nodes)
+               .append(" nps ").append(getNodesPerSecond())
+               .append(" time ").append(this.elapsedMillis);
+        if (this.statistics != SearchStatistics.EMPTY) {
+            builder.append(' ').append(this.statistics);
+        }
+        builder.append(" pv");
+        for (final Move move : this.principalVariation) {
+            builder.append(' ').append(MoveEncoding.toString(MoveEncoding.encode(move)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.chess.engine.player.ai;
+
+// Räknare för att ställa in fönstren: hur ofta aspirationsfönstret i roten slog fel åt
+// något håll, och hur ofta nollfönster- och reducerade sökningar fick göras om
+public final class SearchStatistics {
+
+    // För sökningar som inte samlar statistik, skrivs inte ut av SearchResult
+    public static final SearchStatistics EMPTY = new SearchStatistics(0, 0, 0, 0);
+
+    private final long aspirationFailHighs;
+    private final long aspirationFailLows;
+    private final long pvsResearches;
+    private final long reductionResearches;
+
+    SearchStatistics(final long aspirationFailHighs,
+                     final long aspirationFailLows,
+                     final long pvsResearches,
+                     final long reductionResearches) {
+        this.aspirationFailHighs = aspirationFailHighs;
+        this.aspirationFailLows = aspirationFailLows;
+        this.pvsResearches = pvsResearches;
+        this.reductionResearches = reductionResearches;
+    }
+
+    public long getAspirationFailHighs() {
+        return this.aspirationFailHighs;
+    }
+
+    public long getAspirationFailLows() {
+        return this.aspirationFailLows;
+    }
+
+    public long getPvsResearches() {
+        return this.pvsResearches;
+    }
+
+    public long getReductionResearches() {
+        return this.reductionResearches;
+    }
+
+    // Varje fel i aspirationsfönstret ger en ny sökning av roten
+    public long getResearches() {
+        return this.aspirationFailHighs + this.aspirationFailLows + this.pvsResearches + this.reductionResearches;
+    }
+
+    @Override
+    public String toString() {
+        return "failhigh " + this.aspirationFailHighs +
+               " faillow " + this.aspirationFailLows +
+               " pvs-research " + this.pvsResearches +
+               " lmr-research " + this.reductionResearches;
+    }
+}
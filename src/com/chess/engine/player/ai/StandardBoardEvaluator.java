@@ -0,0 +1,16 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.PieceSquareTables;
+
+// Material och pjäs-rutvärden, blandade mellan mittspel och slutspel efter kvarvarande material.
+// Summan hålls av brädet och uppdateras av dragen, så ingen pjäs behöver gås igenom här
+public final class StandardBoardEvaluator implements BoardEvaluator {
+
+    @Override
+    public int evaluate(final Board board) {
+        final int score = PieceSquareTables.taperedScore(board.getPieceSquareScore(),
+                                                         PieceSquareTables.calculatePhase(board.getBitBoard()));
+        return board.currentPlayer().getAlliance().isWhite() ? score : -score;
+    }
+}
@@ -0,0 +1,64 @@
+package com.chess.engine.player.ai;
+
+// Fördelar tiden för ett drag. Efter den mjuka gränsen börjar sökningen inga nya djup, eftersom
+// nästa djup sällan hinner bli klart. Vid den hårda gränsen avbryts sökningen mitt i ett djup
+// och draget från det senaste färdiga djupet används. En liten marginal hålls undan för att
+// hinna returnera draget innan klockan går ut.
+final class TimeManager {
+
+    private static final long NO_LIMIT = Long.MAX_VALUE;
+    private static final long MOVE_OVERHEAD_MILLIS = 10;
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    // Den hårda gränsen får ta flera gånger den mjuka, men aldrig mer än en del av klockan
+    private static final int HARD_LIMIT_FACTOR = 4;
+    private static final int MAX_CLOCK_FRACTION = 4;
+
+    private final long startNanos;
+    private final long softLimitNanos;
+    private final long hardLimitNanos;
+
+    TimeManager(final SearchLimits limits) {
+        this.startNanos = System.nanoTime();
+        final long softLimitMillis;
+        final long hardLimitMillis;
+        if (limits.getMoveTimeMillis() > 0) {
+            softLimitMillis = Math.max(1, limits.getMoveTimeMillis() - MOVE_OVERHEAD_MILLIS);
+            hardLimitMillis = softLimitMillis;
+        } else if (limits.getRemainingTimeMillis() > 0) {
+            final long available = Math.max(1, limits.getRemainingTimeMillis() - MOVE_OVERHEAD_MILLIS);
+            final int movesToGo = limits.getMovesToGo() > 0 ? limits.getMovesToGo() : DEFAULT_MOVES_TO_GO;
+            softLimitMillis = Math.min(available, available / movesToGo + limits.getIncrementMillis() * 3 / 4);
+            hardLimitMillis = Math.min(Math.max(softLimitMillis, available / MAX_CLOCK_FRACTION),
+                                       softLimitMillis * HARD_LIMIT_FACTOR);
+        } else {
+            softLimitMillis = NO_LIMIT;
+            hardLimitMillis = NO_LIMIT;
+        }
+        this.softLimitNanos = toNanos(softLimitMillis);
+        this.hardLimitNanos = toNanos(hardLimitMillis);
+    }
+
+    boolean canStartIteration() {
+        return elapsedNanos() < this.softLimitNanos;
+    }
+
+    boolean isHardLimitReached() {
+        return elapsedNanos() >= this.hardLimitNanos;
+    }
+
+    long getSoftLimitMillis() {
+        return this.softLimitNanos == NO_LIMIT ? 0 : this.softLimitNanos / 1000000;
+    }
+
+    long getHardLimitMillis() {
+        return this.hardLimitNanos == NO_LIMIT ? 0 : this.hardLimitNanos / 1000000;
+    }
+
+    private long elapsedNanos() {
+        return System.nanoTime() - this.startNanos;
+    }
+
+    private static long toNanos(final long millis) {
+        return millis == NO_LIMIT ? NO_LIMIT : millis * 1000000;
+    }
+}
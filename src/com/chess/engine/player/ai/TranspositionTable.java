@@ -0,0 +1,252 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.move.MoveEncoding;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+// Delad minnestabell för sökningen, indexerad med brädets Zobrist-nyckel. Varje plats är två
+// long: nyckeln XOR:ad med datat samt datat självt. En plats som skrivits av två trådar samtidigt
+// klarar då inte kontrollen vid läsning och räknas som en miss, så inga lås behövs.
+// Fyra platser bildar en hink på 64 byte, och inom hinken ersätts grunda och gamla poster först.
+public final class TranspositionTable {
+
+    public static final long NO_ENTRY = 0L;
+
+    // Typ av värde, 0 betyder att platsen är tom
+    public static final int UPPER_BOUND = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int EXACT = 3;
+
+    public static final long MIN_SIZE_IN_BYTES = 1L << 20;
+    public static final long MAX_SIZE_IN_BYTES = 16L << 30;
+
+    // Data: bit 0-19 drag, 20-35 värde, 36-43 djup, 44-45 värdetyp och 46-53 sökningens ålder
+    private static final int MOVE_MASK = 0xFFFFF;
+    private static final int SCORE_SHIFT = 20;
+    private static final int DEPTH_SHIFT = 36;
+    private static final int BOUND_SHIFT = 44;
+    private static final int AGE_SHIFT = 46;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int BOUND_MASK = 0x3;
+
+    private static final int LONGS_PER_SLOT = 2;
+    private static final int SLOTS_PER_BUCKET = 4;
+    private static final int BYTES_PER_BUCKET = SLOTS_PER_BUCKET * LONGS_PER_SLOT * Long.BYTES;
+    private static final int MAX_DEPTH = BYTE_MASK;
+
+    private final Storage storage;
+    private final long bucketMask;
+    private volatile int age;
+
+    public TranspositionTable(final long sizeInBytes) {
+        this(sizeInBytes, false);
+    }
+
+    // Med offHeap hamnar tabellen i direktminne utanför Java-heapen, så att en stor tabell
+    // inte behöver gås igenom av skräpsamlaren
+    public TranspositionTable(final long sizeInBytes, final boolean offHeap) {
+        if (sizeInBytes < MIN_SIZE_IN_BYTES || sizeInBytes > MAX_SIZE_IN_BYTES) {
+            throw new IllegalArgumentException("Table size must be between " + MIN_SIZE_IN_BYTES +
+                                               " and " + MAX_SIZE_IN_BYTES + " bytes, was " + sizeInBytes);
+        }
+        // Antalet hinkar avrundas nedåt till en tvåpotens, så att indexet blir en mask av nyckeln
+        final long bucketCount = Long.highestOneBit(sizeInBytes / BYTES_PER_BUCKET);
+        final long longCount = bucketCount * SLOTS_PER_BUCKET * LONGS_PER_SLOT;
+        this.storage = offHeap ? new OffHeapStorage(longCount) : new OnHeapStorage(longCount);
+        this.bucketMask = bucketCount - 1;
+        this.age = 0;
+    }
+
+    public long getSizeInBytes() {
+        return (this.bucketMask + 1) * BYTES_PER_BUCKET;
+    }
+
+    // Anropas innan varje ny sökning, så att poster från tidigare sökningar ersätts först
+    public void newSearch() {
+        this.age = (this.age + 1) & BYTE_MASK;
+    }
+
+    public void clear() {
+        this.storage.clear();
+        this.age = 0;
+    }
+
+    // Ger datat för positionen, eller NO_ENTRY om den saknas
+    public long probe(final long zobristHash) {
+        final long bucket = bucketIndex(zobristHash);
+        for (int slot = 0; slot < SLOTS_PER_BUCKET; slot++) {
+            final long index = bucket + slot * LONGS_PER_SLOT;
+            final long data = this.storage.get(index + 1);
+            if (data != NO_ENTRY && (this.storage.get(index) ^ data) == zobristHash) {
+                return data;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    public void store(final long zobristHash,
+                      final int move,
+                      final int score,
+                      final int depth,
+                      final int bound) {
+        final long bucket = bucketIndex(zobristHash);
+        final int currentAge = this.age;
+        long replaceIndex = bucket;
+        int replaceValue = Integer.MAX_VALUE;
+        for (int slot = 0; slot < SLOTS_PER_BUCKET; slot++) {
+            final long index = bucket + slot * LONGS_PER_SLOT;
+            final long data = this.storage.get(index + 1);
+            if (data == NO_ENTRY) {
+                replaceIndex = index;
+                break;
+            }
+            if ((this.storage.get(index) ^ data) == zobristHash) {
+                // Samma position: en grundare sökning får inte skriva över ett djupare resultat
+                // från samma sökning, men ett exakt värde är alltid bättre än en gräns
+                if (bound != EXACT && depth < getDepth(data) && getAge(data) == currentAge) {
+                    return;
+                }
+                write(index, zobristHash, move != MoveEncoding.NO_MOVE ? move : getMove(data), score, depth, bound, currentAge);
+                return;
+            }
+            final int value = getDepth(data) - 8 * ((currentAge - getAge(data)) & BYTE_MASK);
+            if (value < replaceValue) {
+                replaceValue = value;
+                replaceIndex = index;
+            }
+        }
+        write(replaceIndex, zobristHash, move, score, depth, bound, currentAge);
+    }
+
+    // Andel av tabellen som används, i promille, uppskattad från de första hinkarna
+    public int getUsagePermill() {
+        final long sampledBuckets = Math.min(1000, this.bucketMask + 1);
+        int used = 0;
+        for (long bucket = 0; bucket < sampledBuckets; bucket++) {
+            for (int slot = 0; slot < SLOTS_PER_BUCKET; slot++) {
+                final long data = this.storage.get((bucket * SLOTS_PER_BUCKET + slot) * LONGS_PER_SLOT + 1);
+                if (data != NO_ENTRY && getAge(data) == this.age) {
+                    used++;
+                }
+            }
+        }
+        return (int) (used * 1000 / (sampledBuckets * SLOTS_PER_BUCKET));
+    }
+
+    public static int getMove(final long entry) {
+        return (int) (entry & MOVE_MASK);
+    }
+
+    public static int getScore(final long entry) {
+        return (short) (entry >>> SCORE_SHIFT);
+    }
+
+    public static int getDepth(final long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & BYTE_MASK;
+    }
+
+    public static int getBound(final long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & BOUND_MASK;
+    }
+
+    private static int getAge(final long entry) {
+        return (int) (entry >>> AGE_SHIFT) & BYTE_MASK;
+    }
+
+    private void write(final long index,
+                       final long zobristHash,
+                       final int move,
+                       final int score,
+                       final int depth,
+                       final int bound,
+                       final int entryAge) {
+        if (score < Short.MIN_VALUE || score > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Score out of range: " + score);
+        }
+        final long data = (move & MOVE_MASK) |
+                          (score & 0xFFFFL) << SCORE_SHIFT |
+                          (long) Math.max(0, Math.min(depth, MAX_DEPTH)) << DEPTH_SHIFT |
+                          (long) bound << BOUND_SHIFT |
+                          (long) entryAge << AGE_SHIFT;
+        this.storage.set(index, zobristHash ^ data);
+        this.storage.set(index + 1, data);
+    }
+
+    private long bucketIndex(final long zobristHash) {
+        return (zobristHash & this.bucketMask) * SLOTS_PER_BUCKET * LONGS_PER_SLOT;
+    }
+
+    // Tabellen delas upp i bitar, eftersom både arrayer och ByteBuffer indexeras med int
+    private interface Storage {
+        int CHUNK_SHIFT = 24;
+        int MAX_CHUNK_LONGS = 1 << CHUNK_SHIFT;
+
+        long get(long index);
+
+        void set(long index, long value);
+
+        void clear();
+    }
+
+    private static final class OnHeapStorage implements Storage {
+        private final long[][] chunks;
+
+        OnHeapStorage(final long longCount) {
+            final int chunkLongs = (int) Math.min(longCount, MAX_CHUNK_LONGS);
+            this.chunks = new long[(int) (longCount / chunkLongs)][chunkLongs];
+        }
+
+        @Override
+        public long get(final long index) {
+            return this.chunks[(int) (index >>> CHUNK_SHIFT)][(int) (index & (MAX_CHUNK_LONGS - 1))];
+        }
+
+        @Override
+        public void set(final long index, final long value) {
+            this.chunks[(int) (index >>> CHUNK_SHIFT)][(int) (index & (MAX_CHUNK_LONGS - 1))] = value;
+        }
+
+        @Override
+        public void clear() {
+            for (final long[] chunk : this.chunks) {
+                Arrays.fill(chunk, 0L);
+            }
+        }
+    }
+
+    private static final class OffHeapStorage implements Storage {
+        private final LongBuffer[] chunks;
+
+        OffHeapStorage(final long longCount) {
+            final int chunkLongs = (int) Math.min(longCount, MAX_CHUNK_LONGS);
+            this.chunks = new LongBuffer[(int) (longCount / chunkLongs)];
+            for (int i = 0; i < this.chunks.length; i++) {
+                this.chunks[i] = ByteBuffer.allocateDirect(chunkLongs * Long.BYTES)
+                                           .order(ByteOrder.nativeOrder())
+                                           .asLongBuffer();
+            }
+        }
+
+        @Override
+        public long get(final long index) {
+            return this.chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & (MAX_CHUNK_LONGS - 1)));
+        }
+
+        @Override
+        public void set(final long index, final long value) {
+            this.chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & (MAX_CHUNK_LONGS - 1)), value);
+        }
+
+        @Override
+        public void clear() {
+            for (final LongBuffer chunk : this.chunks) {
+                for (int i = 0; i < chunk.capacity(); i++) {
+                    chunk.put(i, 0L);
+                }
+            }
+        }
+    }
+}
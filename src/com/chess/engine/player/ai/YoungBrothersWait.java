@@ -0,0 +1,404 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.move.Move;
+import com.chess.engine.move.MoveTransition;
+import com.chess.pgn.FenUtilities;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+// Parallell alfa-beta enligt Young Brothers Wait på en ForkJoinPool. Första draget i varje nod
+// söks först, och när dess värde är känt söks de övriga syskonen som egna uppgifter. Brädet är
+// immutable, så syskonen delar inget tillstånd. Gör ett syskon en cutoff avbryts de andra.
+// Sökningen saknar transpositionstabell och avbrutna noder ger alltid beta, så värdet och
+// draget blir desamma oavsett antal trådar. Det gör den lämplig att jämföra skalning med.
+public final class YoungBrothersWait implements MoveStrategy {
+
+    private static final String STANDARD_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String USAGE = "Usage: YoungBrothersWait <depth> [-fen <FEN>] [-threads <n>] [-compare]";
+
+    private static final int INFINITY = 32000;
+    // Delträd med så här få drag kvar söks seriellt, uppdelningen skulle kosta mer än den ger
+    private static final int SEQUENTIAL_DEPTH = 2;
+
+    private final int maxDepth;
+    private final BoardEvaluator evaluator;
+    private final ForkJoinPool pool;
+    private final List<SearchThread> threads;
+    private final Map<SearchThread, Long> nodesAtSearchStart;
+    private volatile SplitPoint searchSplitPoint;
+
+    public YoungBrothersWait(final int parallelism, final int maxDepth) {
+        if (maxDepth < 1 || maxDepth >= AlphaBeta.MAX_PLY) {
+            throw new IllegalArgumentException("Search depth must be between 1 and " + (AlphaBeta.MAX_PLY - 1) + ", was " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+        this.evaluator = new StandardBoardEvaluator();
+        this.threads = new CopyOnWriteArrayList<>();
+        this.nodesAtSearchStart = new ConcurrentHashMap<>();
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            final SearchThread thread = new SearchThread(pool);
+            this.threads.add(thread);
+            return thread;
+        }, null, false);
+    }
+
+    public int getParallelism() {
+        return this.pool.getParallelism();
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        return search(board).getBestMove();
+    }
+
+    public SearchResult search(final Board board) {
+        final long startTime = System.currentTimeMillis();
+        final SplitPoint searchSplitPoint = new SplitPoint(null);
+        this.searchSplitPoint = searchSplitPoint;
+        this.nodesAtSearchStart.clear();
+        for (final SearchThread thread : this.threads) {
+            this.nodesAtSearchStart.put(thread, thread.nodes);
+        }
+
+        SearchResult result = null;
+        Move bestMove = Move.NULL_MOVE;
+        for (int depth = 1; depth <= this.maxDepth; depth++) {
+            // Första djupet söks alltid klart, så att det finns ett drag att returnera
+            final SplitPoint rootSplitPoint = new SplitPoint(depth == 1 ? null : searchSplitPoint);
+            final RootResult rootResult = this.pool.invoke(new RootTask(board, depth, bestMove, rootSplitPoint));
+            if (rootSplitPoint.isAborted()) {
+                break;
+            }
+            bestMove = rootResult.bestMove;
+            result = new SearchResult(bestMove, rootResult.score, depth,
+                                      bestMove == Move.NULL_MOVE ? ImmutableList.of() : ImmutableList.of(bestMove),
+                                      getNodes(), System.currentTimeMillis() - startTime);
+            if (AlphaBeta.isMateScore(rootResult.score) || bestMove == Move.NULL_MOVE) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    // Avbryter sökningen från en annan tråd, det senaste färdiga djupet används
+    public void stop() {
+        final SplitPoint splitPoint = this.searchSplitPoint;
+        if (splitPoint != null) {
+            splitPoint.cutoff();
+        }
+    }
+
+    // Antal noder varje tråd sökt under senaste sökningen
+    public Map<String, Long> getNodesPerThread() {
+        final Map<String, Long> nodes = new LinkedHashMap<>();
+        for (final SearchThread thread : this.threads) {
+            nodes.put(thread.getName(), getNodes(thread));
+        }
+        return nodes;
+    }
+
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    private long getNodes() {
+        long nodes = 0;
+        for (final SearchThread thread : this.threads) {
+            nodes += getNodes(thread);
+        }
+        return nodes;
+    }
+
+    // Trådar som startats under sökningen har ingen startpunkt och började från noll
+    private long getNodes(final SearchThread thread) {
+        return thread.nodes - this.nodesAtSearchStart.getOrDefault(thread, 0L);
+    }
+
+    private RootResult searchRoot(final Board board, final int depth, final Move previousBestMove, final SplitPoint splitPoint) {
+        final List<Move> moves = MoveOrderer.orderByCaptures(board.currentPlayer().getLegalMoves(), previousBestMove);
+        final int eldest = findFirstLegalMove(board, moves);
+        if (eldest == moves.size()) {
+            return new RootResult(Move.NULL_MOVE, board.currentPlayer().isInCheck() ? -AlphaBeta.MATE_SCORE : 0);
+        }
+        Move bestMove = moves.get(eldest);
+        int alpha = -search(board.currentPlayer().makeMove(bestMove).getTransitionBoard(), depth - 1, 1,
+                            -INFINITY, INFINITY, splitPoint);
+        final List<Move> siblings = moves.subList(eldest + 1, moves.size());
+        final List<SearchTask> tasks = new ArrayList<>();
+        for (final Move move : siblings) {
+            tasks.add(new SearchTask(board, move, depth - 1, 1, alpha, INFINITY, splitPoint));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        // Syskonen jämförs i dragordning, så vid lika värden vinner alltid samma drag
+        for (int i = 0; i < tasks.size(); i++) {
+            final int score = tasks.get(i).join();
+            if (score > alpha) {
+                alpha = score;
+                bestMove = siblings.get(i);
+            }
+        }
+        return new RootResult(bestMove, alpha);
+    }
+
+    // Index för det första lagliga draget, eller moves.size() om det inte finns något
+    private static int findFirstLegalMove(final Board board, final List<Move> moves) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (board.currentPlayer().makeMove(moves.get(i)).getMoveStatus().isDone()) {
+                return i;
+            }
+        }
+        return moves.size();
+    }
+
+    // Alfa-beta med fast fönster, värdet begränsas till [alpha, beta]
+    private int search(final Board board,
+                       final int depth,
+                       final int ply,
+                       final int alphaIn,
+                       final int beta,
+                       final SplitPoint splitPoint) {
+        ((SearchThread) Thread.currentThread()).nodes++;
+        if (splitPoint.isAborted()) {
+            return 0;
+        }
+        if (depth <= 0 || ply >= AlphaBeta.MAX_PLY) {
+            return Math.max(alphaIn, Math.min(beta, this.evaluator.evaluate(board)));
+        }
+        final List<Move> moves = MoveOrderer.orderByCaptures(board.currentPlayer().getLegalMoves(), Move.NULL_MOVE);
+        final int eldest = findFirstLegalMove(board, moves);
+        if (eldest == moves.size()) {
+            final int score = board.currentPlayer().isInCheck() ? -AlphaBeta.MATE_SCORE + ply : 0;
+            return Math.max(alphaIn, Math.min(beta, score));
+        }
+
+        // Den äldsta brodern söks ensam först. Ger den en cutoff byggs syskonens bräden aldrig,
+        // och på små delträd byggs varje bräde först när draget ska sökas
+        int alpha = alphaIn;
+        final int serialMoves = depth <= SEQUENTIAL_DEPTH ? moves.size() : eldest + 1;
+        for (int i = eldest; i < serialMoves; i++) {
+            final MoveTransition transition = board.currentPlayer().makeMove(moves.get(i));
+            if (!transition.getMoveStatus().isDone()) {
+                continue;
+            }
+            final int score = -search(transition.getTransitionBoard(), depth - 1, ply + 1, -beta, -alpha, splitPoint);
+            if (splitPoint.isAborted()) {
+                return 0;
+            }
+            if (score >= beta) {
+                return beta;
+            }
+            alpha = Math.max(alpha, score);
+        }
+        if (serialMoves == moves.size()) {
+            return alpha;
+        }
+
+        final SplitPoint childSplitPoint = new SplitPoint(splitPoint);
+        final List<SearchTask> tasks = new ArrayList<>();
+        for (final Move move : moves.subList(serialMoves, moves.size())) {
+            tasks.add(new SearchTask(board, move, depth - 1, ply + 1, alpha, beta, childSplitPoint));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        if (splitPoint.isAborted()) {
+            return 0;
+        }
+        if (childSplitPoint.isAborted()) {
+            return beta;
+        }
+        int bestScore = alpha;
+        for (final SearchTask task : tasks) {
+            bestScore = Math.max(bestScore, task.join());
+        }
+        return bestScore;
+    }
+
+    // YoungBrothersWait <djup> [-fen <FEN>] [-threads <n>] [-compare]
+    public static void main(final String[] args) {
+        if (args.length == 0) {
+            System.out.println(USAGE);
+            return;
+        }
+        final int depth = Integer.parseInt(args[0]);
+        String fen = STANDARD_FEN;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean compare = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "-fen":
+                    fen = args[++i];
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-compare":
+                    compare = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i] + "\n" + USAGE);
+            }
+        }
+
+        final Board board = FenUtilities.createGameFromFEN(fen);
+        SearchResult serialResult = null;
+        if (compare) {
+            final YoungBrothersWait serial = new YoungBrothersWait(1, depth);
+            try {
+                serialResult = serial.search(board);
+            } finally {
+                serial.shutdown();
+            }
+            System.out.println("Serial");
+            System.out.println(serialResult);
+            System.out.println();
+        }
+
+        final YoungBrothersWait parallel = new YoungBrothersWait(threads, depth);
+        try {
+            final SearchResult result = parallel.search(board);
+            System.out.println("Young Brothers Wait, " + threads + " threads");
+            System.out.println(result);
+            for (final Map.Entry<String, Long> entry : parallel.getNodesPerThread().entrySet()) {
+                System.out.println("  " + entry.getKey() + ": " + entry.getValue() + " nodes");
+            }
+            if (serialResult != null) {
+                System.out.println("Matches serial: " + (result.getScore() == serialResult.getScore() &&
+                                                         result.getBestMove().equals(serialResult.getBestMove())));
+                System.out.println("Speedup: " + String.format("%.2f", (double) Math.max(1, serialResult.getElapsedMillis()) /
+                                                                       Math.max(1, result.getElapsedMillis())));
+                System.out.println("Node ratio: " + String.format("%.2f", (double) result.getNodes() /
+                                                                          Math.max(1, serialResult.getNodes())));
+            }
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    // Avbrottsflagga för en nod med parallella syskon. En nod är avbruten om den själv eller
+    // någon nod ovanför har fått en cutoff
+    private static final class SplitPoint {
+
+        private final SplitPoint parent;
+        private volatile boolean cutoff;
+
+        SplitPoint(final SplitPoint parent) {
+            this.parent = parent;
+        }
+
+        void cutoff() {
+            this.cutoff = true;
+        }
+
+        boolean isAborted() {
+            for (SplitPoint splitPoint = this; splitPoint != null; splitPoint = splitPoint.parent) {
+                if (splitPoint.cutoff) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class RootResult {
+
+        private final Move bestMove;
+        private final int score;
+
+        RootResult(final Move bestMove, final int score) {
+            this.bestMove = bestMove;
+            this.score = score;
+        }
+    }
+
+    // Varje tråd räknar sina egna noder. Bara tråden själv skriver räknaren, så den behöver inga
+    // atomära operationer, men den nollställs aldrig. Andra trådar läser den och räknar skillnaden
+    // mot sökningens start
+    private static final class SearchThread extends ForkJoinWorkerThread {
+
+        private volatile long nodes;
+
+        SearchThread(final ForkJoinPool pool) {
+            super(pool);
+        }
+    }
+
+    private final class RootTask extends RecursiveTask<RootResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int depth;
+        private final Move previousBestMove;
+        private final SplitPoint splitPoint;
+
+        RootTask(final Board board, final int depth, final Move previousBestMove, final SplitPoint splitPoint) {
+            this.board = board;
+            this.depth = depth;
+            this.previousBestMove = previousBestMove;
+            this.splitPoint = splitPoint;
+        }
+
+        @Override
+        protected RootResult compute() {
+            return searchRoot(this.board, this.depth, this.previousBestMove, this.splitPoint);
+        }
+    }
+
+    // Söker ett syskon från förälderns sida. Ger draget en cutoff avbryts de övriga syskonen.
+    // Draget görs i uppgiften, så att bräden inte byggs för syskon som hinner avbrytas och så
+    // att bygget delas mellan trådarna. Ett olagligt drag ger alpha och påverkar inte resultatet
+    private final class SearchTask extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Board parent;
+        private final Move move;
+        private final int depth;
+        private final int ply;
+        private final int alpha;
+        private final int beta;
+        private final SplitPoint splitPoint;
+
+        SearchTask(final Board parent,
+                   final Move move,
+                   final int depth,
+                   final int ply,
+                   final int alpha,
+                   final int beta,
+                   final SplitPoint splitPoint) {
+            this.parent = parent;
+            this.move = move;
+            this.depth = depth;
+            this.ply = ply;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.splitPoint = splitPoint;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (this.splitPoint.isAborted()) {
+                return 0;
+            }
+            final MoveTransition transition = this.parent.currentPlayer().makeMove(this.move);
+            if (!transition.getMoveStatus().isDone()) {
+                return this.alpha;
+            }
+            final int score = -search(transition.getTransitionBoard(), this.depth, this.ply, -this.beta, -this.alpha, this.splitPoint);
+            if (score >= this.beta && !this.splitPoint.isAborted()) {
+                this.splitPoint.cutoff();
+            }
+            return score;
+        }
+    }
+}
@@ -6,6 +6,10 @@ import com.chess.engine.move.Move;
 import com.chess.engine.board.Tile;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.move.MoveTransition;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.engine.player.ai.TranspositionTable;
 import com.google.common.collect.Lists;
 
 import javax.imageio.ImageIO;
@@ -22,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import static javax.swing.SwingUtilities.isLeftMouseButton;
 import static javax.swing.SwingUtilities.isRightMouseButton;
@@ -40,11 +45,18 @@ public class Table {
     private Tile destinationTile;
     private Piece humanMovedPiece;
 
+    private final AlphaBeta engine;
+    private EngineMoveWorker engineMoveWorker;
+    private boolean computerPlaysWhite;
+    private boolean computerPlaysBlack;
 
     private static final Dimension OUTER_FRAME_DIMENSION = new Dimension(600, 600);
     private static final Dimension BOARD_PANEL_DIMENSION = new Dimension(400, 350);
     private static final Dimension TILE_PANEL_DIMENSION = new Dimension(10, 10);
 
+    private static final SearchLimits ENGINE_LIMITS = SearchLimits.moveTime(AlphaBeta.MAX_PLY - 1, 2000);
+    private static final long ENGINE_HASH_SIZE = 32L << 20;
+
     private static String defaultPieceImagesPath = "art/simple/";
 
 
@@ -67,6 +79,8 @@ public class Table {
         this.moveLog = new MoveLog();
         this.boardDirection = BoardDirection.NORMAL;
         this.highLightLegalMoves = true;
+        this.engine = new AlphaBeta(AlphaBeta.MAX_PLY - 1, 0, new StandardBoardEvaluator(),
+                                    new TranspositionTable(ENGINE_HASH_SIZE));
         this.gameFrame.add(this.takenPiecesPanel, BorderLayout.WEST);
         this.gameFrame.add(this.boardPanel, BorderLayout.CENTER);
         this.gameFrame.add(this.gameHistoryPanel, BorderLayout.EAST);
@@ -77,6 +91,7 @@ public class Table {
         final JMenuBar tableMenuBar = new JMenuBar();
         tableMenuBar.add(createFileMenu());
         tableMenuBar.add(createPreferencesMenu());
+        tableMenuBar.add(createComputerMenu());
         return tableMenuBar;
     }
     /*A menu */
@@ -125,6 +140,112 @@ public class Table {
         return preferencesMenu;
     }
 
+    /*Menu for letting the computer play one or both sides*/
+    private JMenu createComputerMenu() {
+        final JMenu computerMenu = new JMenu("Computer");
+        final JCheckBoxMenuItem playWhiteCheckBox = new JCheckBoxMenuItem("Computer Plays White", false);
+        playWhiteCheckBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent e) {
+                computerPlaysWhite = playWhiteCheckBox.isSelected();
+                computerSidesChanged();
+            }
+        });
+        computerMenu.add(playWhiteCheckBox);
+        final JCheckBoxMenuItem playBlackCheckBox = new JCheckBoxMenuItem("Computer Plays Black", false);
+        playBlackCheckBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent e) {
+                computerPlaysBlack = playBlackCheckBox.isSelected();
+                computerSidesChanged();
+            }
+        });
+        computerMenu.add(playBlackCheckBox);
+
+        computerMenu.addSeparator();
+        // Avbryter sökningen, datorn spelar då det bästa draget den hunnit hitta
+        final JMenuItem moveNowMenuItem = new JMenuItem("Move Now");
+        moveNowMenuItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent e) {
+                if (isEngineThinking()) {
+                    engine.stop();
+                }
+            }
+        });
+        computerMenu.add(moveNowMenuItem);
+        return computerMenu;
+    }
+
+    private boolean isComputerToMove() {
+        return chessBoard.currentPlayer().getAlliance().isWhite() ? computerPlaysWhite : computerPlaysBlack;
+    }
+
+    // Slutar datorn spela sidan vid draget avbryts sökningen direkt, draget den ger kastas i done
+    private void computerSidesChanged() {
+        if (isEngineThinking() && !isComputerToMove()) {
+            engine.stop();
+        } else {
+            startEngineMoveIfComputerToMove();
+        }
+    }
+
+    private boolean isEngineThinking() {
+        return engineMoveWorker != null && !engineMoveWorker.isDone();
+    }
+
+    // Körs på event-tråden. Sökningen görs i en SwingWorker så att fönstret inte låser sig
+    private void startEngineMoveIfComputerToMove() {
+        if (isComputerToMove() && !isEngineThinking() && !chessBoard.currentPlayer().isInCheckMate() &&
+            !chessBoard.currentPlayer().isInStalemate()) {
+            // Nollställs här och inte i sökningen, så att Move Now gäller även innan workern startat
+            engine.clearStop();
+            engineMoveWorker = new EngineMoveWorker(chessBoard);
+            engineMoveWorker.execute();
+        }
+    }
+
+    private void redrawPanels() {
+        gameHistoryPanel.redo(chessBoard, moveLog);
+        takenPiecesPanel.redo(moveLog);
+        boardPanel.drawBoard(chessBoard);
+    }
+
+    private class EngineMoveWorker extends SwingWorker<Move, Void> {
+        private final Board board;
+
+        EngineMoveWorker(final Board board) {
+            this.board = board;
+        }
+
+        @Override
+        protected Move doInBackground() {
+            return engine.search(this.board, ENGINE_LIMITS).getBestMove();
+        }
+
+        // done körs på event-tråden, så brädet kan uppdateras direkt
+        @Override
+        protected void done() {
+            try {
+                final Move move = get();
+                // Ett drag för ett bräde som inte längre visas, eller för en sida datorn slutat spela, spelas inte
+                if (chessBoard != this.board || !isComputerToMove() || move == Move.NULL_MOVE) {
+                    return;
+                }
+                final MoveTransition transition = chessBoard.currentPlayer().makeMove(move);
+                if (transition.getMoveStatus().isDone()) {
+                    chessBoard = transition.getTransitionBoard();
+                    moveLog.addMove(move);
+                    redrawPanels();
+                }
+            } catch (final InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+                return;
+            }
+            startEngineMoveIfComputerToMove();
+        }
+    }
+
     /*This i used to keep track of what kind board should be show, if the user want
     to flip it*/
     public enum BoardDirection {
@@ -227,6 +348,10 @@ public class Table {
             addMouseListener(new MouseListener() {
                 @Override
                 public void mouseClicked(final MouseEvent e) {
+                    // Medan datorn tänker är det inte spelarens tur
+                    if (isEngineThinking()) {
+                        return;
+                    }
                     if (isRightMouseButton(e)) {
                         sourceTile = null;
                         destinationTile = null;
@@ -269,9 +394,8 @@ public class Table {
                         SwingUtilities.invokeLater(new Runnable() {
                             @Override
                             public void run() {
-                                gameHistoryPanel.redo(chessBoard, moveLog);
-                                takenPiecesPanel.redo(moveLog);
-                                boardPanel.drawBoard(chessBoard);
+                                redrawPanels();
+                                startEngineMoveIfComputerToMove();
                             }
                         });
                     }
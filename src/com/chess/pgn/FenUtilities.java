@@ -0,0 +1,172 @@
+package com.chess.pgn;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.pieces.PieceUtils;
+
+// Läser och skriver positioner i FEN-format. Brädet håller inte reda på dragräknarna,
+// så de två sista fälten ignoreras vid läsning och skrivs som "0 1".
+public final class FenUtilities {
+
+    private FenUtilities() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static Board createGameFromFEN(final String fenString) {
+        final String[] fenPartitions = fenString.trim().split("\\s+");
+        if (fenPartitions.length < 4) {
+            throw new IllegalArgumentException("Invalid FEN: " + fenString);
+        }
+        final String castlingRights = fenPartitions[2];
+        final Piece[] pieces = new Piece[BoardUtils.NUM_TILES];
+        int square = 0;
+        for (final char c : fenPartitions[0].toCharArray()) {
+            if (c == '/') {
+                continue;
+            }
+            if (Character.isDigit(c)) {
+                square += c - '0';
+                continue;
+            }
+            if (square >= BoardUtils.NUM_TILES) {
+                throw new IllegalArgumentException("Invalid FEN: " + fenString);
+            }
+            pieces[square] = createPiece(c, square, castlingRights);
+            square++;
+        }
+        if (square != BoardUtils.NUM_TILES) {
+            throw new IllegalArgumentException("Invalid FEN: " + fenString);
+        }
+
+        final Board.Builder builder = new Board.Builder();
+        for (final Piece piece : pieces) {
+            if (piece != null) {
+                builder.setPiece(piece);
+            }
+        }
+        final Alliance moveMaker = moveMaker(fenPartitions[1]);
+        builder.setMoveMaker(moveMaker);
+        if (!fenPartitions[3].equals("-")) {
+            // FEN anger rutan bakom bonden, brädet vill ha bonden som just gjort ett dubbelsteg
+            final int enPassantSquare = BoardUtils.getCoordinateAtPosition(fenPartitions[3]);
+            final int pawnSquare = enPassantSquare - (moveMaker.getDirection() * 8);
+            final Piece pawn = pieces[pawnSquare];
+            if (pawn == null || pawn.getPieceType() != PieceType.PAWN || pawn.getPieceAlliance() == moveMaker) {
+                throw new IllegalArgumentException("Invalid en passant square in FEN: " + fenString);
+            }
+            builder.setEnPassantPawn((Pawn) pawn);
+        }
+        return builder.build();
+    }
+
+    public static String createFENFromGame(final Board board) {
+        return calculateBoardText(board) + " " +
+               (board.currentPlayer().getAlliance().isWhite() ? "w" : "b") + " " +
+               calculateCastleText(board) + " " +
+               calculateEnPassantSquare(board) + " " +
+               "0 1";
+    }
+
+    private static Piece createPiece(final char pieceChar, final int square, final String castlingRights) {
+        final Alliance alliance = Character.isUpperCase(pieceChar) ? Alliance.WHITE : Alliance.BLACK;
+        switch (Character.toLowerCase(pieceChar)) {
+            case 'p':
+                // Bönder på startraden får fortfarande göra dubbelsteg
+                return PieceUtils.getPiece(PieceType.PAWN, alliance, square, alliance.getPawnJumps(square) != 0);
+            case 'n':
+                return PieceUtils.getPiece(PieceType.KNIGHT, alliance, square, false);
+            case 'b':
+                return PieceUtils.getPiece(PieceType.BISHOP, alliance, square, false);
+            case 'r':
+                return PieceUtils.getPiece(PieceType.ROOK, alliance, square, isCastlingRook(square, alliance, castlingRights));
+            case 'q':
+                return PieceUtils.getPiece(PieceType.QUEEN, alliance, square, false);
+            case 'k':
+                return PieceUtils.getPiece(PieceType.KING, alliance, square, isCastlingKing(square, alliance, castlingRights));
+            default:
+                throw new IllegalArgumentException("Invalid FEN piece: " + pieceChar);
+        }
+    }
+
+    private static boolean isCastlingKing(final int square, final Alliance alliance, final String castlingRights) {
+        return alliance.isWhite() ?
+               square == 60 && (castlingRights.contains("K") || castlingRights.contains("Q")) :
+               square == 4 && (castlingRights.contains("k") || castlingRights.contains("q"));
+    }
+
+    private static boolean isCastlingRook(final int square, final Alliance alliance, final String castlingRights) {
+        if (alliance.isWhite()) {
+            return (square == 63 && castlingRights.contains("K")) || (square == 56 && castlingRights.contains("Q"));
+        }
+        return (square == 7 && castlingRights.contains("k")) || (square == 0 && castlingRights.contains("q"));
+    }
+
+    private static Alliance moveMaker(final String moveMakerString) {
+        if (moveMakerString.equals("w")) {
+            return Alliance.WHITE;
+        }
+        if (moveMakerString.equals("b")) {
+            return Alliance.BLACK;
+        }
+        throw new IllegalArgumentException("Invalid FEN side to move: " + moveMakerString);
+    }
+
+    private static String calculateBoardText(final Board board) {
+        final StringBuilder builder = new StringBuilder();
+        int emptySquares = 0;
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final Piece piece = board.getTile(square).getPiece();
+            if (piece == null) {
+                emptySquares++;
+            } else {
+                if (emptySquares > 0) {
+                    builder.append(emptySquares);
+                    emptySquares = 0;
+                }
+                final String pieceText = piece.toString();
+                builder.append(piece.getPieceAlliance().isWhite() ? pieceText.toUpperCase() : pieceText.toLowerCase());
+            }
+            if ((square + 1) % BoardUtils.NUM_TILES_PER_ROW == 0) {
+                if (emptySquares > 0) {
+                    builder.append(emptySquares);
+                    emptySquares = 0;
+                }
+                if (square != BoardUtils.NUM_TILES - 1) {
+                    builder.append('/');
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String calculateCastleText(final Board board) {
+        final int castlingRights = board.getCastlingRights();
+        final StringBuilder builder = new StringBuilder();
+        if ((castlingRights & BoardUtils.WHITE_KING_SIDE_CASTLE) != 0) {
+            builder.append('K');
+        }
+        if ((castlingRights & BoardUtils.WHITE_QUEEN_SIDE_CASTLE) != 0) {
+            builder.append('Q');
+        }
+        if ((castlingRights & BoardUtils.BLACK_KING_SIDE_CASTLE) != 0) {
+            builder.append('k');
+        }
+        if ((castlingRights & BoardUtils.BLACK_QUEEN_SIDE_CASTLE) != 0) {
+            builder.append('q');
+        }
+        return builder.length() == 0 ? "-" : builder.toString();
+    }
+
+    private static String calculateEnPassantSquare(final Board board) {
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        if (enPassantPawn == null) {
+            return "-";
+        }
+        return BoardUtils.getPositionAtCoordinate(enPassantPawn.getPiecePosition() -
+                                                  (enPassantPawn.getPieceAlliance().getDirection() * 8));
+    }
+}